@@ -0,0 +1,133 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives GET /api/sessions with N concurrent closed-loop clients (one virtual thread each) and
+ * reports throughput and latency percentiles per concurrency level. Run it once against a server
+ * started normally and once with --spring.threads.virtual.enabled=true to compare the two modes.
+ *
+ *   java loadtest/ConcurrencySweep.java [baseUrl] [seconds] [levels]
+ * Defaults: http://localhost:8081 20 1000,5000,10000
+ *
+ * Each client holds its own connection; raise the open file limit (ulimit -n) on both sides and
+ * server.tomcat.max-connections above the highest level.
+ */
+public class ConcurrencySweep {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern USER_ID = Pattern.compile("\"userId\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8081";
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int[] levels = Arrays.stream((args.length > 2 ? args[2] : "1000,5000,10000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+
+        HttpClient setup = HttpClient.newHttpClient();
+        String email = "sweep" + System.nanoTime() + "@example.com";
+        String signup = setup.send(post(base + "/api/auth/signup",
+                "{\"userName\":\"Sweep\",\"email\":\"" + email + "\",\"password\":\"s3cret123\"}", null),
+                HttpResponse.BodyHandlers.ofString()).body();
+        String token = match(TOKEN, signup);
+        String userId = match(USER_ID, signup);
+        for (int i = 0; i < 20; i++) {
+            setup.send(post(base + "/api/" + userId + "/sessions/pose" + (i % 5),
+                    "{\"status\":\"completed\",\"date\":\"2025-01-" + String.format("%02d", i + 1) + "\"}", token),
+                    HttpResponse.BodyHandlers.discarding());
+        }
+        HttpRequest list = HttpRequest.newBuilder(URI.create(base + "/api/sessions"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET().build();
+
+        System.out.printf("%8s %10s %9s %9s %9s  %s%n", "clients", "req/s", "p50 ms", "p99 ms", "max ms", "responses");
+        for (int clients : levels) {
+            run(list, clients, seconds);
+        }
+    }
+
+    private static void run(HttpRequest request, int clients, int seconds) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        long[][] samples = new long[clients][];
+        int[] counts = new int[clients];
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.max(1, seconds / 5));
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(seconds);
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int slot = c;
+                samples[slot] = new long[4096];
+                clientThreads.submit(() -> {
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        String outcome;
+                        try {
+                            outcome = String.valueOf(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+                        } catch (Exception e) {
+                            outcome = e.getClass().getSimpleName();
+                        }
+                        long done = System.nanoTime();
+                        if (now >= warmupEnd && done <= end) {
+                            outcomes.computeIfAbsent(outcome, o -> new LongAdder()).increment();
+                            if (counts[slot] == samples[slot].length) {
+                                samples[slot] = Arrays.copyOf(samples[slot], counts[slot] * 2);
+                            }
+                            samples[slot][counts[slot]++] = done - now;
+                        }
+                    }
+                });
+            }
+        }
+        long[] all = new long[Arrays.stream(counts).sum()];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(samples[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        if (all.length == 0) {
+            System.out.printf("%8d %10s%n", clients, "no samples");
+            return;
+        }
+        System.out.printf("%8d %10.0f %9.1f %9.1f %9.1f  %s%n", clients, all.length / (double) seconds,
+                percentile(all, 0.50), percentile(all, 0.99), all[all.length - 1] / 1e6, new TreeMap<>(outcomes));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private static HttpRequest post(String url, String json, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static String match(Pattern pattern, String body) {
+        Matcher m = pattern.matcher(body);
+        if (!m.find()) {
+            throw new IllegalStateException("Unexpected response: " + body);
+        }
+        return m.group(1);
+    }
+}
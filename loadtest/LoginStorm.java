@@ -0,0 +1,145 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures GET /api/sessions latency on its own and again while a login storm runs against
+ * the same server, to check that password hashing no longer stalls the cheap endpoints.
+ *
+ * Run against a started server (JDK 21, no build needed):
+ *   java loadtest/LoginStorm.java [baseUrl] [readers] [loginClients] [seconds]
+ * Defaults: http://localhost:8081 8 64 20
+ */
+public class LoginStorm {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern USER_ID = Pattern.compile("\"userId\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8081";
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int loginClients = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String email = "storm" + System.nanoTime() + "@example.com";
+        String credentials = "{\"userName\":\"Storm\",\"email\":\"" + email + "\",\"password\":\"s3cret123\"}";
+        String signup = send(client, post(base + "/api/auth/signup", credentials, null)).body();
+        String token = match(TOKEN, signup);
+        String userId = match(USER_ID, signup);
+        for (int i = 0; i < 20; i++) {
+            send(client, post(base + "/api/" + userId + "/sessions/pose" + (i % 5),
+                    "{\"status\":\"completed\",\"date\":\"2025-01-" + String.format("%02d", i + 1) + "\"}", token));
+        }
+        HttpRequest list = HttpRequest.newBuilder(URI.create(base + "/api/sessions"))
+                .header("Authorization", "Bearer " + token).GET().build();
+        HttpRequest login = post(base + "/api/auth/login",
+                "{\"email\":\"" + email + "\",\"password\":\"s3cret123\"}", null);
+
+        System.out.printf("Baseline: %d readers for %ds%n", readers, seconds);
+        report("GET /api/sessions", run(client, list, readers, seconds));
+
+        System.out.printf("Storm: %d readers + %d login clients for %ds%n", readers, loginClients, seconds);
+        Map<Integer, LongAdder> loginStatuses = new ConcurrentHashMap<>();
+        ExecutorService storm = Executors.newFixedThreadPool(loginClients);
+        long stormEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds + 2);
+        for (int i = 0; i < loginClients; i++) {
+            storm.submit(() -> {
+                while (System.nanoTime() < stormEnd) {
+                    int status = send(client, login).statusCode();
+                    loginStatuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+                }
+                return null;
+            });
+        }
+        Thread.sleep(2000);
+        report("GET /api/sessions", run(client, list, readers, seconds));
+        storm.shutdown();
+        storm.awaitTermination(1, TimeUnit.MINUTES);
+        System.out.println("  login responses by status: " + loginStatuses);
+    }
+
+    private static long[] run(HttpClient client, HttpRequest request, int threads, int seconds)
+            throws InterruptedException {
+        List<long[]> perThread = new ArrayList<>();
+        int[] counts = new int[threads];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        for (int t = 0; t < threads; t++) {
+            long[] samples = new long[1 << 20];
+            perThread.add(samples);
+            int slot = t;
+            pool.submit(() -> {
+                while (System.nanoTime() < end && counts[slot] < samples.length) {
+                    long start = System.nanoTime();
+                    send(client, request);
+                    samples[counts[slot]++] = System.nanoTime() - start;
+                }
+                return null;
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(perThread.get(t), 0, all, offset, counts[t]);
+            offset += counts[t];
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    private static void report(String name, long[] sorted) {
+        if (sorted.length == 0) {
+            System.out.println("  " + name + ": no samples");
+            return;
+        }
+        System.out.printf("  %s: n=%d p50=%.1fms p99=%.1fms max=%.1fms%n", name, sorted.length,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private static HttpRequest post(String url, String json, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static HttpResponse<String> send(HttpClient client, HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            throw new IllegalStateException(request.uri() + " failed", e);
+        }
+    }
+
+    private static String match(Pattern pattern, String body) {
+        Matcher m = pattern.matcher(body);
+        if (!m.find()) {
+            throw new IllegalStateException("Unexpected response: " + body);
+        }
+        return m.group(1);
+    }
+}
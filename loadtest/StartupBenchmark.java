@@ -0,0 +1,159 @@
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts the server repeatedly with each given command line and measures the time from process start
+ * to the first 200 from GET /api/sessions, and the process's resident set size at that moment
+ * (read from /proc, so Linux only). Modes are interleaved run by run so drift affects all alike.
+ *
+ *   java loadtest/StartupBenchmark.java [baseUrl] [runs] label=command [label=command ...]
+ * Defaults: http://localhost:8081 5
+ *
+ * Commands run from the current directory, must start the server on baseUrl's port, and are split on
+ * spaces. A first, unmeasured start of the first command signs up the user whose token later runs
+ * use and warms the file cache. For the default and the startup-optimized build (mvn -Pstartup package):
+ *
+ *   java loadtest/StartupBenchmark.java http://localhost:8081 5 \
+ *     "default=java -jar target/bend-right-backend-0.0.1-SNAPSHOT.jar" \
+ *     "optimized=java -XX:SharedArchiveFile=target/startup/application.jsa -Dspring.aot.enabled=true
+ *      -Dspring.profiles.active=prod -jar target/startup/bend-right-backend-0.0.1-SNAPSHOT.jar"
+ */
+public class StartupBenchmark {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern RSS = Pattern.compile("VmRSS:\\s+(\\d+) kB");
+    private static final long START_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(180);
+
+    public static void main(String[] args) throws Exception {
+        int next = 0;
+        String base = args.length > next && args[next].startsWith("http") ? args[next++] : "http://localhost:8081";
+        int runs = args.length > next && args[next].matches("\\d+") ? Integer.parseInt(args[next++]) : 5;
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        for (; next < args.length; next++) {
+            int eq = args[next].indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected label=command, got: " + args[next]);
+            }
+            modes.put(args[next].substring(0, eq), List.of(args[next].substring(eq + 1).trim().split("\\s+")));
+        }
+        if (modes.isEmpty()) {
+            throw new IllegalArgumentException("No command given; see the class comment for usage");
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        String token = signUp(client, base, modes.values().iterator().next());
+        HttpRequest list = HttpRequest.newBuilder(URI.create(base + "/api/sessions"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(10))
+                .GET().build();
+
+        Map<String, long[]> millis = new LinkedHashMap<>();
+        Map<String, long[]> rssKb = new LinkedHashMap<>();
+        modes.keySet().forEach(label -> {
+            millis.put(label, new long[runs]);
+            rssKb.put(label, new long[runs]);
+        });
+        for (int run = 0; run < runs; run++) {
+            for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+                long[] sample = measure(client, list, mode.getValue());
+                millis.get(mode.getKey())[run] = sample[0];
+                rssKb.get(mode.getKey())[run] = sample[1];
+                System.out.printf("run %d %-12s %6d ms %8d MB%n", run + 1, mode.getKey(), sample[0], sample[1] / 1024);
+            }
+        }
+
+        System.out.printf("%n%-12s %12s %8s %8s %12s%n", "mode", "median ms", "min ms", "max ms", "median RSS MB");
+        for (String label : modes.keySet()) {
+            long[] ms = millis.get(label);
+            long[] rss = rssKb.get(label);
+            Arrays.sort(ms);
+            Arrays.sort(rss);
+            System.out.printf("%-12s %12d %8d %8d %12d%n", label, ms[runs / 2], ms[0], ms[runs - 1], rss[runs / 2] / 1024);
+        }
+    }
+
+    /**
+     * One start: milliseconds until the listing answered 200, and RSS in kB at that point.
+     */
+    private static long[] measure(HttpClient client, HttpRequest list, List<String> command) throws Exception {
+        File log = File.createTempFile("startup-benchmark", ".log");
+        long started = System.nanoTime();
+        Process server = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+        try {
+            while (true) {
+                if (!server.isAlive()) {
+                    throw new IllegalStateException("Server exited with " + server.exitValue() + ", see " + log);
+                }
+                if (System.nanoTime() - started > START_TIMEOUT_NANOS) {
+                    throw new IllegalStateException("Server did not answer in time, see " + log);
+                }
+                try {
+                    if (client.send(list, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                        return new long[] {elapsed, rss(server.pid())};
+                    }
+                } catch (IOException notListening) {
+                    // Not accepting connections yet
+                }
+                Thread.sleep(10);
+            }
+        } finally {
+            stop(server);
+            log.delete();
+        }
+    }
+
+    private static String signUp(HttpClient client, String base, List<String> command) throws Exception {
+        Process server = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            HttpRequest signup = HttpRequest.newBuilder(URI.create(base + "/api/auth/signup"))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(10))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"userName\":\"Startup\",\"email\":\"startup"
+                            + System.nanoTime() + "@example.com\",\"password\":\"s3cret123\"}"))
+                    .build();
+            long deadline = System.nanoTime() + START_TIMEOUT_NANOS;
+            while (System.nanoTime() < deadline && server.isAlive()) {
+                try {
+                    Matcher m = TOKEN.matcher(client.send(signup, HttpResponse.BodyHandlers.ofString()).body());
+                    if (m.find()) {
+                        return m.group(1);
+                    }
+                } catch (IOException notListening) {
+                    // Not accepting connections yet
+                }
+                Thread.sleep(100);
+            }
+            throw new IllegalStateException("Could not sign up a benchmark user with: " + String.join(" ", command));
+        } finally {
+            stop(server);
+        }
+    }
+
+    private static long rss(long pid) throws IOException {
+        Matcher m = RSS.matcher(Files.readString(Path.of("/proc", Long.toString(pid), "status")));
+        return m.find() ? Long.parseLong(m.group(1)) : -1;
+    }
+
+    private static void stop(Process server) throws InterruptedException {
+        server.destroy();
+        if (!server.waitFor(30, TimeUnit.SECONDS)) {
+            server.destroyForcibly().waitFor();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+-- Compares the old case-insensitive email lookup with the exact match on normalized emails
+-- used since V5, on a scratch copy of the users table with one million rows.
+-- Run with any client against a scratch database, e.g.
+--   psql -d bendright -f loadtest/email_lookup_benchmark.sql
+-- Creates and drops the schema email_bench; the application's tables are untouched.
+
+DROP SCHEMA IF EXISTS email_bench CASCADE;
+CREATE SCHEMA email_bench;
+
+CREATE TABLE email_bench.users (
+    id        BIGSERIAL PRIMARY KEY,
+    email     VARCHAR(255) NOT NULL UNIQUE,
+    password  VARCHAR(255) NOT NULL,
+    user_name VARCHAR(255)
+);
+
+INSERT INTO email_bench.users (email, password, user_name)
+SELECT 'user' || g || '@example.com', '$2a$10$abcdefghijklmnopqrstuv', 'User ' || g
+FROM generate_series(1, 1000000) g;
+ANALYZE email_bench.users;
+
+-- Average milliseconds per lookup over n random existing emails
+CREATE FUNCTION email_bench.time_lookups(lookup TEXT, n INT) RETURNS NUMERIC AS $$
+DECLARE
+    started TIMESTAMPTZ := clock_timestamp();
+    found   BIGINT;
+BEGIN
+    FOR i IN 1..n LOOP
+        EXECUTE lookup INTO found USING 'USER' || (1 + floor(random() * 1000000)::INT) || '@Example.com';
+    END LOOP;
+    RETURN round((extract(EPOCH FROM clock_timestamp() - started) * 1000 / n)::NUMERIC, 3);
+END
+$$ LANGUAGE plpgsql;
+
+-- Before: Spring Data's ...IgnoreCase derived query
+EXPLAIN (ANALYZE, COSTS OFF)
+SELECT id FROM email_bench.users WHERE lower(email) = lower('USER500000@Example.com');
+
+-- After: email normalized by the application, exact match
+EXPLAIN (ANALYZE, COSTS OFF)
+SELECT id FROM email_bench.users WHERE email = lower(btrim('USER500000@Example.com'));
+
+SELECT 'lower(email) = lower(?)' AS lookup,
+       email_bench.time_lookups('SELECT id FROM email_bench.users WHERE lower(email) = lower($1)', 20) AS avg_ms
+UNION ALL
+SELECT 'email = ? (normalized)',
+       email_bench.time_lookups('SELECT id FROM email_bench.users WHERE email = lower(btrim($1))', 10000);
+
+DROP SCHEMA email_bench CASCADE;
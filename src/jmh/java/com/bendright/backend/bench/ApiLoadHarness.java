@@ -0,0 +1,247 @@
+package com.bendright.backend.bench;
+
+import com.bendright.backend.BendRightBackendApplication;
+import com.bendright.backend.security.JwtService;
+import com.bendright.backend.service.PracticeStatsRebuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * End-to-end load harness: boots the application on a random port against a local PostgreSQL
+ * database, seeds users and sessions, then drives signup, login, create-session, bulk uploads of 1, 100
+ * and 10,000 sessions and list-sessions with closed-loop clients and prints throughput and latency
+ * percentiles for each. Session writes also report stored sessions per second, so the bulk endpoint can
+ * be compared with one request per session.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.main=com.bendright.backend.bench.ApiLoadHarness \
+ *     -Dbench.args="--spring.datasource.url=jdbc:postgresql://localhost:5432/bendright_bench --bench.clients=32"
+ * </pre>
+ *
+ * Settings (all optional): {@code bench.users} (1000), {@code bench.sessions-per-user} (200),
+ * {@code bench.clients} (16), {@code bench.duration} (15s). Use a scratch database: the harness
+ * migrates it and leaves the seeded and created rows behind. Seeding is skipped when the seeded
+ * users already exist, so repeated runs start quickly.
+ */
+public class ApiLoadHarness {
+
+    static final String PASSWORD = "s3cret123";
+    private static final String SEED_EMAIL_PATTERN = "seed%@bench.example.com";
+
+    public static void main(String[] args) throws Exception {
+        // Every client shares one address and a few users; measure the endpoints, not the rate and concurrency limits
+        System.getProperties().putIfAbsent("rate-limit.enabled", "false");
+        System.getProperties().putIfAbsent("concurrency-limit.enabled", "false");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BendRightBackendApplication.class)
+                .properties(Map.of(
+                        "spring.config.on-not-found", "ignore",
+                        "spring.datasource.url", "jdbc:postgresql://localhost:5432/bendright_bench",
+                        "spring.datasource.username", "postgres",
+                        "spring.datasource.password", "",
+                        "server.port", "0",
+                        "auth.hashing.queue-capacity", "1024"))
+                .run(args)) {
+            Environment env = context.getEnvironment();
+            int users = env.getProperty("bench.users", Integer.class, 1000);
+            int sessionsPerUser = env.getProperty("bench.sessions-per-user", Integer.class, 200);
+            int clients = env.getProperty("bench.clients", Integer.class, 16);
+            Duration duration = env.getProperty("bench.duration", Duration.class, Duration.ofSeconds(15));
+            String base = "http://localhost:" + env.getProperty("local.server.port");
+
+            List<SeedUser> seeded = seed(context, users, sessionsPerUser);
+            new ApiLoadHarness(base, clients, duration, seeded).run();
+        }
+    }
+
+    record SeedUser(long id, String email, String authorization) {}
+
+    static List<SeedUser> seed(ConfigurableApplicationContext context, int users, int sessionsPerUser)
+            throws Exception {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Integer existing = jdbc.queryForObject("select count(*) from users where email like ?", Integer.class,
+                SEED_EMAIL_PATTERN);
+        if (existing == null || existing < users) {
+            long started = System.nanoTime();
+            String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+            jdbc.update("insert into users (email, password, user_name)"
+                    + " select 'seed' || g || '@bench.example.com', ?, 'Seed ' || g from generate_series(1, ?) g"
+                    + " on conflict (email) do nothing", hash, users);
+            jdbc.update("delete from sessions where user_id in (select id from users where email like ?)",
+                    SEED_EMAIL_PATTERN);
+            // Two years of history per user over 40 asanas, about 80% completed
+            jdbc.update("insert into asanas (name, normalized_name) select 'pose' || g, 'pose' || g"
+                    + " from generate_series(0, 40) g on conflict (normalized_name) do nothing");
+            jdbc.update("insert into sessions (id, status, date, asana_id, user_id, revision)"
+                    + " select nextval('sessions_id_seq'),"
+                    + " case when random() < 0.8 then 'COMPLETED' else 'PENDING' end,"
+                    + " current_date - (random() * 730)::int, a.id, u.id, 0"
+                    + " from users u cross join generate_series(1, ?) g"
+                    // Lateral on g, so the asana is drawn per row rather than once
+                    + " cross join lateral (select 'pose' || ((random() * 40)::int + g * 0) as name) pick"
+                    + " join asanas a on a.normalized_name = pick.name"
+                    + " where u.email like ?",
+                    sessionsPerUser, SEED_EMAIL_PATTERN);
+            jdbc.execute("analyze users");
+            jdbc.execute("analyze sessions");
+            context.getBean(PracticeStatsRebuilder.class).rebuildAll();
+            System.out.printf("Seeded %d users x %d sessions in %d ms%n", users, sessionsPerUser,
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+        JwtService jwtService = context.getBean(JwtService.class);
+        return jdbc.query("select id, email, user_name from users where email like ? order by id limit ?",
+                (rs, i) -> new SeedUser(rs.getLong(1), rs.getString(2),
+                        "Bearer " + jwtService.generateToken(rs.getLong(1), rs.getString(3))),
+                SEED_EMAIL_PATTERN, users);
+    }
+
+    private final String base;
+    private final int clients;
+    private final Duration duration;
+    private final List<SeedUser> users;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final AtomicLong signups = new AtomicLong();
+
+    private ApiLoadHarness(String base, int clients, Duration duration, List<SeedUser> users) {
+        this.base = base;
+        this.clients = clients;
+        this.duration = duration;
+        this.users = users;
+    }
+
+    private void run() throws InterruptedException {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        System.out.printf("%d clients, %ds per scenario%n", clients, duration.toSeconds());
+        System.out.printf("%-16s %9s %9s %11s %9s %9s %9s %9s %7s%n",
+                "scenario", "requests", "req/s", "sessions/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+        scenario("list-sessions", 0, i -> HttpRequest.newBuilder(URI.create(base + "/api/sessions"))
+                .header("Authorization", randomUser().authorization()).GET().build());
+        scenario("create-session", 1, i -> {
+            SeedUser user = randomUser();
+            return json(base + "/api/" + user.id() + "/sessions/pose" + ThreadLocalRandom.current().nextInt(40),
+                    "{\"status\":\"completed\",\"date\":\"" + randomDate() + "\"}", user.authorization());
+        });
+        for (int size : new int[] {1, 100, 10_000}) {
+            scenario("bulk-" + size, size, i -> {
+                SeedUser user = randomUser();
+                return json(base + "/api/" + user.id() + "/sessions", bulkBody(size), user.authorization());
+            });
+        }
+        scenario("login", 0, i -> json(base + "/api/auth/login",
+                "{\"email\":\"" + randomUser().email() + "\",\"password\":\"" + PASSWORD + "\"}", null));
+        scenario("signup", 0, i -> json(base + "/api/auth/signup",
+                "{\"userName\":\"Bench\",\"email\":\"signup-" + runId + "-" + signups.incrementAndGet()
+                        + "@bench.example.com\",\"password\":\"" + PASSWORD + "\"}", null));
+    }
+
+    private SeedUser randomUser() {
+        return users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+
+    private static String randomDate() {
+        return LocalDate.now().minusDays(ThreadLocalRandom.current().nextInt(730)).toString();
+    }
+
+    private static String bulkBody(int size) {
+        StringBuilder body = new StringBuilder(size * 64).append('[');
+        for (int n = 0; n < size; n++) {
+            if (n > 0) {
+                body.append(',');
+            }
+            body.append("{\"status\":\"completed\",\"date\":\"").append(randomDate())
+                    .append("\",\"asana\":\"pose").append(ThreadLocalRandom.current().nextInt(40)).append("\"}");
+        }
+        return body.append(']').toString();
+    }
+
+    private static HttpRequest json(String url, String body, String authorization) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param sessionsPerRequest sessions stored by each successful request, 0 for scenarios that store none
+     */
+    private void scenario(String name, int sessionsPerRequest, IntFunction<HttpRequest> requests) throws InterruptedException {
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        long end = warmupEnd + duration.toNanos();
+        List<long[]> samples = new ArrayList<>();
+        int[] counts = new int[clients];
+        int[] errors = new int[clients];
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        for (int c = 0; c < clients; c++) {
+            int slot = c;
+            long[] own = new long[1 << 18];
+            samples.add(own);
+            pool.submit(() -> {
+                long now;
+                while ((now = System.nanoTime()) < end && counts[slot] < own.length) {
+                    boolean ok;
+                    try {
+                        int status = http.send(requests.apply(slot), HttpResponse.BodyHandlers.discarding()).statusCode();
+                        ok = status < 400;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    long done = System.nanoTime();
+                    if (now >= warmupEnd) {
+                        own[counts[slot]++] = done - now;
+                        if (!ok) {
+                            errors[slot]++;
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(duration.toSeconds() + 120, TimeUnit.SECONDS);
+
+        long[] all = new long[Arrays.stream(counts).sum()];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(samples.get(c), 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        if (all.length == 0) {
+            System.out.printf("%-16s %9s%n", name, "no samples");
+            return;
+        }
+        int failed = Arrays.stream(errors).sum();
+        double seconds = duration.toNanos() / 1e9;
+        String sessionsPerSecond = sessionsPerRequest == 0 ? "-"
+                : String.format("%.1f", (all.length - failed) * (double) sessionsPerRequest / seconds);
+        System.out.printf("%-16s %9d %9.1f %11s %9.2f %9.2f %9.2f %9.2f %7d%n", name, all.length,
+                all.length / seconds, sessionsPerSecond, percentile(all, 0.50), percentile(all, 0.90),
+                percentile(all, 0.99), all[all.length - 1] / 1e6, failed);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,238 @@
+package com.bendright.backend.bench;
+
+import com.bendright.backend.BendRightBackendApplication;
+import com.bendright.backend.bench.ApiLoadHarness.SeedUser;
+import com.bendright.backend.config.ConnectionAdmissionDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load shedding under a slow database: boots the application like {@link ApiLoadHarness}, with every SQL
+ * statement delayed by an adjustable amount while holding its connection. Closed-loop clients send a mix of
+ * session listings (authenticated reads) and logins through three phases, healthy, slow database and
+ * recovered, and the harness prints per phase and route how many requests succeeded or were shed, the
+ * latency of successful ones and the concurrency limit at the end of the phase.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.main=com.bendright.backend.bench.DbLatencyHarness \
+ *     -Dbench.args="--bench.clients=128 --bench.db-latency=100ms"
+ * </pre>
+ *
+ * Settings (all optional): {@code bench.clients} (64), {@code bench.db-latency} (50ms),
+ * {@code bench.phase-duration} (15s), {@code bench.login-ratio} (0.2), plus {@code bench.users} and
+ * {@code bench.sessions-per-user} for seeding as in {@link ApiLoadHarness}. Pass
+ * {@code --concurrency-limit.enabled=false} to compare against the unprotected server.
+ */
+public class DbLatencyHarness {
+
+    private static final String[] ROUTES = {"read", "auth"};
+
+    private static volatile long statementDelayNanos;
+
+    public static void main(String[] args) throws Exception {
+        System.getProperties().putIfAbsent("rate-limit.enabled", "false");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                BendRightBackendApplication.class, SlowStatements.class)
+                .properties(Map.of(
+                        "spring.config.on-not-found", "ignore",
+                        "spring.datasource.url", "jdbc:postgresql://localhost:5432/bendright_bench",
+                        "spring.datasource.username", "postgres",
+                        "spring.datasource.password", "",
+                        "server.port", "0",
+                        "auth.hashing.queue-capacity", "1024"))
+                .run(args)) {
+            Environment env = context.getEnvironment();
+            int clients = env.getProperty("bench.clients", Integer.class, 64);
+            Duration latency = env.getProperty("bench.db-latency", Duration.class, Duration.ofMillis(50));
+            Duration phase = env.getProperty("bench.phase-duration", Duration.class, Duration.ofSeconds(15));
+            double loginRatio = env.getProperty("bench.login-ratio", Double.class, 0.2);
+            List<SeedUser> users = ApiLoadHarness.seed(context,
+                    env.getProperty("bench.users", Integer.class, 1000),
+                    env.getProperty("bench.sessions-per-user", Integer.class, 200));
+            new DbLatencyHarness("http://localhost:" + env.getProperty("local.server.port"), clients, phase,
+                    loginRatio, users, context.getBean(MeterRegistry.class)).run(latency);
+        }
+    }
+
+    /**
+     * Delays every statement prepared on the guarded pool's connections by {@link #statementDelayNanos}.
+     */
+    @Configuration
+    static class SlowStatements {
+
+        @Bean
+        static BeanPostProcessor slowStatementsPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof ConnectionAdmissionDataSource guarded ? new SlowDataSource(guarded) : bean;
+                }
+            };
+        }
+    }
+
+    private static final class SlowDataSource extends DelegatingDataSource {
+
+        SlowDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return slow(obtainTargetDataSource().getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return slow(obtainTargetDataSource().getConnection(username, password));
+        }
+
+        private static Connection slow(Connection target) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                    (proxy, method, args) -> {
+                        long delay = statementDelayNanos;
+                        if (delay > 0 && method.getName().matches("prepareStatement|prepareCall|createStatement")) {
+                            TimeUnit.NANOSECONDS.sleep(delay);
+                        }
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+
+    private final String base;
+    private final int clients;
+    private final Duration phase;
+    private final double loginRatio;
+    private final List<SeedUser> users;
+    private final MeterRegistry meterRegistry;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    private DbLatencyHarness(String base, int clients, Duration phase, double loginRatio, List<SeedUser> users,
+                             MeterRegistry meterRegistry) {
+        this.base = base;
+        this.clients = clients;
+        this.phase = phase;
+        this.loginRatio = loginRatio;
+        this.users = users;
+        this.meterRegistry = meterRegistry;
+    }
+
+    private void run(Duration latency) throws InterruptedException {
+        System.out.printf("%d clients, %ds per phase, %d%% logins, slow phase adds %d ms per statement%n",
+                clients, phase.toSeconds(), Math.round(loginRatio * 100), latency.toMillis());
+        System.out.printf("%-10s %-5s %9s %9s %9s %9s %9s %9s %6s%n",
+                "phase", "route", "ok", "shed", "errors", "ok/s", "p50 ms", "p99 ms", "limit");
+        phase("healthy", 0);
+        phase("slow-db", latency.toNanos());
+        phase("recovered", 0);
+    }
+
+    private void phase(String name, long delayNanos) throws InterruptedException {
+        statementDelayNanos = delayNanos;
+        long end = System.nanoTime() + phase.toNanos();
+        // Per client and route: latencies of successful requests, and counts of ok, shed (503) and other errors
+        List<long[][]> samples = new ArrayList<>();
+        List<int[][]> counts = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        for (int c = 0; c < clients; c++) {
+            long[][] own = new long[ROUTES.length][1 << 16];
+            int[][] n = new int[ROUTES.length][3];
+            samples.add(own);
+            counts.add(n);
+            pool.submit(() -> {
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    int route = ThreadLocalRandom.current().nextDouble() < loginRatio ? 1 : 0;
+                    int status;
+                    try {
+                        status = http.send(request(route), HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    long took = System.nanoTime() - now;
+                    if (status >= 200 && status < 400) {
+                        if (n[route][0] < own[route].length) {
+                            own[route][n[route][0]] = took;
+                        }
+                        n[route][0]++;
+                    } else if (status == 503) {
+                        n[route][1]++;
+                        // Honour Retry-After loosely, like a client backing off
+                        TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextInt(50, 150));
+                    } else {
+                        n[route][2]++;
+                    }
+                }
+                return null;
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(phase.toSeconds() + 120, TimeUnit.SECONDS);
+
+        Double limit = meterRegistry.find("http.server.requests.concurrency.limit").gauges().stream()
+                .findFirst().map(g -> g.value()).orElse(null);
+        for (int r = 0; r < ROUTES.length; r++) {
+            int route = r;
+            int ok = counts.stream().mapToInt(n -> n[route][0]).sum();
+            int shed = counts.stream().mapToInt(n -> n[route][1]).sum();
+            int errors = counts.stream().mapToInt(n -> n[route][2]).sum();
+            long[] all = new long[counts.stream().mapToInt(n -> Math.min(n[route][0], 1 << 16)).sum()];
+            int offset = 0;
+            for (int c = 0; c < clients; c++) {
+                int kept = Math.min(counts.get(c)[route][0], 1 << 16);
+                System.arraycopy(samples.get(c)[route], 0, all, offset, kept);
+                offset += kept;
+            }
+            Arrays.sort(all);
+            System.out.printf("%-10s %-5s %9d %9d %9d %9.1f %9.2f %9.2f %6s%n", name, ROUTES[route], ok, shed, errors,
+                    ok / (phase.toNanos() / 1e9), percentile(all, 0.50), percentile(all, 0.99),
+                    limit == null ? "-" : Integer.toString(limit.intValue()));
+        }
+    }
+
+    private HttpRequest request(int route) {
+        SeedUser user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+        if (route == 0) {
+            return HttpRequest.newBuilder(URI.create(base + "/api/sessions"))
+                    .header("Authorization", user.authorization()).GET().build();
+        }
+        return HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + user.email() + "\",\"password\":\"" + ApiLoadHarness.PASSWORD + "\"}"))
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
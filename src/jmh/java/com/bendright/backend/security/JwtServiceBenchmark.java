@@ -0,0 +1,80 @@
+package com.bendright.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification. {@code verifyCached} is the steady state of a client reusing its
+ * token; {@code verifyUncached} draws from far more tokens than the verified-token cache holds,
+ * so nearly every call pays for parsing and the HMAC check. {@code verifyLegacy} is the original
+ * path for comparison: the key and parser were rebuilt from the secret for every token parsed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    static final String SECRET = "benchmark_secret_key_benchmark_secret_key";
+    private static final int UNCACHED_TOKENS = 4096;
+
+    private JwtService jwtService;
+    private JwtService smallCacheJwtService;
+    private String token;
+    private String[] tokens;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 3_600_000, 10_000,
+                TokenRevocationsBenchmark.inMemory(new SimpleMeterRegistry()), new SimpleMeterRegistry());
+        smallCacheJwtService = new JwtService(SECRET, 3_600_000, 16,
+                TokenRevocationsBenchmark.inMemory(new SimpleMeterRegistry()), new SimpleMeterRegistry());
+        token = jwtService.generateToken(42L, "Alice");
+        tokens = new String[UNCACHED_TOKENS];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = jwtService.generateToken((long) i, "User " + i);
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(42L, "Alice");
+    }
+
+    @Benchmark
+    public VerifiedToken verifyCached() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyUncached() {
+        return smallCacheJwtService.verify(tokens[ThreadLocalRandom.current().nextInt(tokens.length)]);
+    }
+
+    @Benchmark
+    public Claims verifyLegacy() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(tokens[ThreadLocalRandom.current().nextInt(tokens.length)])
+                .getBody();
+    }
+}
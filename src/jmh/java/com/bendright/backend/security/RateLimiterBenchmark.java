@@ -0,0 +1,88 @@
+package com.bendright.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter throughput under contention: 64 threads (override with {@code -t}) take tokens from
+ * one shared key ({@code keys=1}, every thread hits the same bucket) or from 4096 keys. The rate is
+ * high enough that every call is allowed, so each one updates its bucket.
+ * <p>
+ * {@code gcra} is {@link GcraRateLimiter} (one CAS per request); {@code synchronizedBucket} is a
+ * conventional refill-and-take token bucket guarded by a monitor, for comparison, held in an
+ * identically configured idle-evicting cache so only the bucket update differs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final double RATE = 1e9;
+    private static final int BURST = 1_000_000;
+
+    @Param({"1", "4096"})
+    public int keys;
+
+    private GcraRateLimiter gcra;
+    private Cache<Long, SynchronizedBucket> synchronizedBuckets;
+
+    @Setup
+    public void setUp() {
+        gcra = new GcraRateLimiter(RATE, BURST, Duration.ofMinutes(10), 100_000);
+        synchronizedBuckets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    @Benchmark
+    public long gcra() {
+        return gcra.tryAcquire(nextKey());
+    }
+
+    @Benchmark
+    public long synchronizedBucket() {
+        return synchronizedBuckets.get(nextKey(), k -> new SynchronizedBucket()).tryAcquire();
+    }
+
+    private Long nextKey() {
+        // Boxed like the user ids the filter passes in; small values come from the Long cache
+        return keys == 1 ? 1L : (long) ThreadLocalRandom.current().nextInt(keys);
+    }
+
+    private static final class SynchronizedBucket {
+        private double tokens = BURST;
+        private long refilledAt = System.nanoTime();
+
+        synchronized long tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(BURST, tokens + (now - refilledAt) * RATE / 1e9);
+            refilledAt = now;
+            if (tokens < 1) {
+                return (long) ((1 - tokens) * 1e9 / RATE);
+            }
+            tokens -= 1;
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.bendright.backend.security;
+
+import com.bendright.backend.repository.TokenRevocationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request revocation check of {@link JwtService#verify}, with {@code revoked} tokens and as many
+ * "log out everywhere" users on the denylist. {@code notRevoked} is the common case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenRevocationsBenchmark {
+
+    @Param({"0", "10000"})
+    private int revoked;
+
+    private TokenRevocations revocations;
+    private VerifiedToken live;
+    private VerifiedToken revokedToken;
+
+    /**
+     * Revocations kept in memory only: stores are accepted and dropped, nothing is loaded.
+     */
+    static TokenRevocations inMemory(MeterRegistry meterRegistry) {
+        TokenRevocationRepository repository = (TokenRevocationRepository) Proxy.newProxyInstance(
+                TokenRevocationRepository.class.getClassLoader(), new Class<?>[] {TokenRevocationRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("save")) {
+                        return args[0];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return new TokenRevocations(repository, meterRegistry, 3_600_000, Duration.ofSeconds(10), 1 << 20, 4);
+    }
+
+    @Setup
+    public void setUp() {
+        revocations = inMemory(new SimpleMeterRegistry());
+        Instant issued = Instant.now();
+        Instant expires = issued.plusSeconds(3600);
+        for (int i = 0; i < revoked; i++) {
+            revocations.revoke(new VerifiedToken((long) i, "User " + i, UUID.randomUUID().toString(), issued, expires));
+            revocations.revokeAll(1_000_000L + i);
+        }
+        revokedToken = new VerifiedToken(7L, "User 7", UUID.randomUUID().toString(), issued, expires);
+        revocations.revoke(revokedToken);
+        live = new VerifiedToken(42L, "Alice", UUID.randomUUID().toString(), issued, expires);
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        return revocations.isRevoked(live);
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        return revocations.isRevoked(revokedToken);
+    }
+}
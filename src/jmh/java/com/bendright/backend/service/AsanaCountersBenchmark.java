@@ -0,0 +1,69 @@
+package com.bendright.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counting stored sessions for the popularity ranking under contention: 64 threads (override with
+ * {@code -t}) count sessions of today for one asana ({@code asanas=1}, every thread hits the same
+ * counter) or for one of 200. {@code longAdder} is {@link AsanaCounters}; {@code atomicLong} keeps one
+ * {@link AtomicLong} per key in the same map, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class AsanaCountersBenchmark {
+
+    @Param({"1", "200"})
+    public int asanas;
+
+    private final long today = LocalDate.now().toEpochDay();
+    private AsanaCounters counters;
+    private Map<Long, AtomicLong> atomics;
+
+    @Setup
+    public void setUp() {
+        counters = new AsanaCounters();
+        atomics = new ConcurrentHashMap<>();
+    }
+
+    @Benchmark
+    public void longAdder() {
+        counters.increment(today, nextAsana());
+    }
+
+    @Benchmark
+    public void atomicLong() {
+        long key = today << 16 | nextAsana();
+        AtomicLong count = atomics.get(key);
+        if (count == null) {
+            count = atomics.computeIfAbsent(key, k -> new AtomicLong());
+        }
+        count.incrementAndGet();
+    }
+
+    private short nextAsana() {
+        return asanas == 1 ? 1 : (short) ThreadLocalRandom.current().nextInt(asanas);
+    }
+}
@@ -0,0 +1,49 @@
+package com.bendright.backend.service;
+
+import com.bendright.backend.model.SessionStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request validation done by {@link SessionService#createSession} before touching the database.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionParsingBenchmark {
+
+    private String status = "completed";
+    private String date = "2025-11-04";
+    private String clientKey = "3f2b8c1e-9a7d-4e5f-8b6a-1c2d3e4f5a6b";
+
+    @Benchmark
+    public SessionStatus parseStatus() {
+        return SessionService.parseStatus(status);
+    }
+
+    @Benchmark
+    public LocalDate parseDate() {
+        return SessionService.parseDate(date);
+    }
+
+    @Benchmark
+    public void parseRequest(Blackhole bh) {
+        bh.consume(SessionService.parseStatus(status));
+        bh.consume(SessionService.parseDate(date));
+        SessionService.validateClientKey(clientKey);
+    }
+}
@@ -0,0 +1,92 @@
+package com.bendright.backend.service;
+
+import com.bendright.backend.dto.SessionView;
+import com.bendright.backend.model.Asana;
+import com.bendright.backend.model.SessionStatus;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU time and size of a 5,000-session listing ({@link SessionService#writeSessions}) per wire format,
+ * with and without Blackbird and gzip. Sizes are printed once per trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionSerializationBenchmark {
+
+    private static final int SESSIONS = 5_000;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean blackbird;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectMapper mapper;
+    private List<SessionView> sessions;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        // Configured like the application's mappers
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().factory(factory);
+        if (blackbird) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        mapper = builder.build();
+
+        List<Asana> asanas = List.of(new Asana((short) 1, "Uttanasana"), new Asana((short) 2, "Downward-Dog"),
+                new Asana((short) 3, "Vrksasana"), new Asana((short) 4, "Virabhadrasana II"));
+        LocalDate first = LocalDate.of(2020, 1, 1);
+        sessions = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions.add(new SessionView(1_000_000L + i, i % 3 == 0 ? SessionStatus.PENDING : SessionStatus.COMPLETED,
+                    first.plusDays(i / 3), asanas.get(i % asanas.size())));
+        }
+        System.out.printf("%n%s blackbird=%s gzip=%s: %d bytes%n", format, blackbird, gzip, serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes, 8192) : bytes) {
+            mapper.writeValue(out, sessions);
+        }
+        return bytes.toByteArray();
+    }
+}
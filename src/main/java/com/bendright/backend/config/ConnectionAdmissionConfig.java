@@ -0,0 +1,45 @@
+package com.bendright.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+/**
+ * Wraps the Hikari pool in a {@link ConnectionAdmissionDataSource} admitting at most
+ * {@code maximum-pool-size + db.connection-guard.max-waiters} concurrent callers.
+ */
+@Configuration
+public class ConnectionAdmissionConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionAdmissionPostProcessor(Environment environment,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        int maxWaiters = environment.getProperty("db.connection-guard.max-waiters", Integer.class, 200);
+        return new AdmissionPostProcessor(maxWaiters, meterRegistry);
+    }
+
+    // Ordered, so the pool is guarded before unordered post-processors such as ReplicaRoutingConfig wrap it
+    private record AdmissionPostProcessor(int maxWaiters, ObjectProvider<MeterRegistry> meterRegistry)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                // The registry is looked up on rejection: the pool is created before metrics are ready
+                return new ConnectionAdmissionDataSource(hikari, hikari.getMaximumPoolSize() + maxWaiters,
+                        () -> meterRegistry.ifAvailable(r -> r.counter("db.connection-guard.rejected").increment()));
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.bendright.backend.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps how many threads may hold or wait for a pooled connection at once. With virtual threads
+ * every in-flight request can block on the pool; beyond the cap callers fail immediately instead
+ * of queueing behind the pool's connection timeout.
+ */
+public class ConnectionAdmissionDataSource extends DelegatingDataSource {
+
+    private final Semaphore admitted;
+    private final Runnable onRejected;
+
+    public ConnectionAdmissionDataSource(DataSource target, int maxAdmitted, Runnable onRejected) {
+        super(target);
+        this.admitted = new Semaphore(maxAdmitted);
+        this.onRejected = onRejected;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        admit();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            admitted.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        admit();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            admitted.release();
+            throw e;
+        }
+    }
+
+    private void admit() throws SQLTransientConnectionException {
+        if (!admitted.tryAcquire()) {
+            onRejected.run();
+            throw new SQLTransientConnectionException("Too many requests waiting for a database connection");
+        }
+    }
+
+    private Connection releasingOnClose(Connection target) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            admitted.release();
+                        }
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
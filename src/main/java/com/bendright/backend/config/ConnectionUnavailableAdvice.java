@@ -0,0 +1,32 @@
+package com.bendright.backend.config;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+
+/**
+ * Answers 503 when no database connection could be obtained in time, either refused by
+ * {@link ConnectionAdmissionDataSource} or timed out in the pool, so clients back off and retry.
+ */
+@RestControllerAdvice
+public class ConnectionUnavailableAdvice {
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<?> handleConnectionUnavailable(RuntimeException e) {
+        if (!(NestedExceptionUtils.getRootCause(e) instanceof SQLTransientConnectionException)) {
+            throw e;
+        }
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("success", false, "message", "Service busy, please retry shortly"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.bendright.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.List;
+
+/**
+ * The application's Jackson setup: one shared mapper per wire format, all built from Boot's configured
+ * {@link Jackson2ObjectMapperBuilder} so they share modules and settings. Blackbird replaces reflective
+ * property access with generated lambdas ({@code json.blackbird.enabled}). Besides JSON, responses are
+ * offered as CBOR and Smile to clients that ask for them in {@code Accept}.
+ */
+@Configuration
+public class JacksonConfig {
+
+    public static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Bean
+    @ConditionalOnProperty(name = "json.blackbird.enabled", havingValue = "true", matchIfMissing = true)
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    /**
+     * Mappers for streamed responses, chosen from the request's {@code Accept} header; JSON first.
+     */
+    @Bean
+    public ResponseFormats responseFormats(ObjectMapper objectMapper,
+                                           MappingJackson2CborHttpMessageConverter cbor,
+                                           MappingJackson2SmileHttpMessageConverter smile) {
+        return new ResponseFormats(List.of(
+                new ResponseFormats.Format(MediaType.APPLICATION_JSON, objectMapper),
+                new ResponseFormats.Format(MediaType.APPLICATION_CBOR, cbor.getObjectMapper()),
+                new ResponseFormats.Format(SMILE, smile.getObjectMapper())));
+    }
+}
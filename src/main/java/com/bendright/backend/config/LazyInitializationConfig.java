@@ -0,0 +1,22 @@
+package com.bendright.backend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Keeps the database stack eager under {@code spring.main.lazy-initialization=true}: the pool, Flyway's
+ * migrations and Hibernate's schema validation still run before the server accepts requests, so a broken
+ * database fails the start instead of the first request.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerPersistence() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class);
+    }
+}
@@ -0,0 +1,55 @@
+package com.bendright.backend.config;
+
+import com.bendright.backend.security.JwtService;
+import com.bendright.backend.security.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Remembers which users stored something during the last {@code db.replicas.read-your-writes-window},
+ * so their reads stay on the primary until the replicas have caught up. Does nothing without replicas.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(@Value("${db.replicas.urls:}") String replicaUrls,
+                                 @Value("${db.replicas.read-your-writes-window:5s}") Duration window,
+                                 @Value("${db.replicas.read-your-writes-max-users:100000}") long maxUsers) {
+        this.recentWriters = replicaUrls.isBlank() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxUsers)
+                .build();
+    }
+
+    public void recordWrite(Long userId) {
+        if (recentWriters != null && userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public boolean wroteRecently(Long userId) {
+        return recentWriters != null && userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    /**
+     * The user the current request is authenticated as, from the token the security filters verified.
+     * Streamed listings and exports see their request too: the streaming executor binds it around each
+     * task ({@link StreamingExecutorConfig}). {@code null} outside a request.
+     */
+    static Long currentUserId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null
+                && attributes.getAttribute(JwtService.VERIFIED_TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                        instanceof VerifiedToken token
+                ? token.userId()
+                : null;
+    }
+}
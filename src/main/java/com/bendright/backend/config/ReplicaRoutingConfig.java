@@ -0,0 +1,74 @@
+package com.bendright.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Puts a {@link ReplicaRoutingDataSource} in front of the guarded primary pool when
+ * {@code db.replicas.urls} lists at least one replica. Each replica gets its own read-only Hikari pool;
+ * credentials and pool size default to the primary's.
+ */
+@Configuration
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public static BeanPostProcessor replicaRoutingPostProcessor(Environment environment,
+                                                                ObjectProvider<ReadYourWritesTracker> tracker) {
+        List<String> urls = List.of(environment.getProperty("db.replicas.urls", String[].class, new String[0]));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (urls.isEmpty() || !(bean instanceof ConnectionAdmissionDataSource primary)
+                        || !(primary.getTargetDataSource() instanceof HikariDataSource primaryPool)) {
+                    return bean;
+                }
+                List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+                for (int i = 0; i < urls.size(); i++) {
+                    replicas.add(replicaPool("replica-" + (i + 1), urls.get(i), primaryPool, environment));
+                }
+                // The tracker is looked up per read: it does not exist yet while the pool is built
+                return new ReplicaRoutingDataSource(primary, replicas,
+                        environment.getProperty("db.replicas.health-check-interval", Duration.class, Duration.ofSeconds(5)),
+                        environment.getProperty("db.replicas.failure-threshold", Integer.class, 3),
+                        ReadYourWritesTracker::currentUserId,
+                        userId -> tracker.getObject().wroteRecently(userId));
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder replicaRoutingMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ReplicaRoutingDataSource routing) {
+                routing.bindTo(registry);
+            }
+        };
+    }
+
+    private static HikariDataSource replicaPool(String name, String url, HikariDataSource primary, Environment environment) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url.trim());
+        pool.setUsername(environment.getProperty("db.replicas.username", primary.getUsername()));
+        pool.setPassword(environment.getProperty("db.replicas.password", primary.getPassword()));
+        pool.setMaximumPoolSize(environment.getProperty("db.replicas.maximum-pool-size", Integer.class,
+                primary.getMaximumPoolSize()));
+        // Short, so an unreachable replica costs a read little time before it falls back to the primary
+        pool.setConnectionTimeout(environment.getProperty("db.replicas.connection-timeout", Duration.class,
+                Duration.ofSeconds(1)).toMillis());
+        pool.setReadOnly(true);
+        // Started lazily: a replica that is down at startup is simply left out until it answers
+        pool.setInitializationFailTimeout(-1);
+        return pool;
+    }
+}
@@ -0,0 +1,196 @@
+package com.bendright.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to replicas. Connections are taken lazily, on the first statement, by
+ * which time the transaction has marked them read-only; everything else goes to the primary.
+ * <p>
+ * An authenticated user always reads from the same replica, chosen by user id, so a revision checked
+ * at the start of a request is never newer than the rows read after it; anonymous reads rotate over the
+ * replicas. A user who wrote within the read-your-writes window reads from the primary.
+ * <p>
+ * A replica whose pool is merely saturated (every connection busy for the whole connection timeout)
+ * stays in rotation; the read that timed out tries the next replica, then the primary. A replica that
+ * fails to open connections {@code failureThreshold} times in a row is left out, with its reads going
+ * elsewhere, until a health check succeeds again.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Supplier<Long> currentUser;
+    private final Predicate<Long> wroteRecently;
+    private final int failureThreshold;
+    private final AtomicInteger nextAnonymous = new AtomicInteger();
+    private final ScheduledExecutorService healthChecks;
+    private volatile Counter replicaReads;
+    private volatile Counter primaryReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools,
+                                    Duration healthCheckInterval, int failureThreshold, Supplier<Long> currentUser,
+                                    Predicate<Long> wroteRecently) {
+        super(primary);
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.currentUser = currentUser;
+        this.wroteRecently = wroteRecently;
+        this.failureThreshold = failureThreshold;
+        setReadOnlyDataSource(new ReadOnlyRouter());
+        this.healthChecks = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Replicas start out unused until their first check passes
+        healthChecks.scheduleWithFixedDelay(this::checkReplicas, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public int healthyReplicas() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    /**
+     * Registers {@code db.replicas.healthy} and {@code db.reads.routed{target}}; the pool is built
+     * before the meter registry exists.
+     */
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("db.replicas.healthy", this, ReplicaRoutingDataSource::healthyReplicas)
+                .description("Replicas currently receiving reads")
+                .register(registry);
+        replicaReads = Counter.builder("db.reads.routed").tag("target", "replica")
+                .description("Read-only transactions by the database that served them")
+                .register(registry);
+        primaryReads = Counter.builder("db.reads.routed").tag("target", "primary")
+                .description("Read-only transactions by the database that served them")
+                .register(registry);
+    }
+
+    private Connection readOnlyConnection() throws SQLException {
+        Long userId = currentUser.get();
+        if (!wroteRecently.test(userId)) {
+            int start = userId != null ? Long.hashCode(userId) : nextAnonymous.getAndIncrement();
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.pool.getConnection();
+                    replica.consecutiveFailures.set(0);
+                    count(replicaReads);
+                    return connection;
+                } catch (SQLException e) {
+                    if (isSaturated(e)) {
+                        continue;
+                    }
+                    if (replica.consecutiveFailures.incrementAndGet() >= failureThreshold && replica.healthy) {
+                        replica.healthy = false;
+                        logger.warn("Replica {} unavailable, routing its reads elsewhere: {}",
+                                replica.pool.getPoolName(), e.getMessage());
+                    }
+                }
+            }
+        }
+        count(primaryReads);
+        return primary.getConnection();
+    }
+
+    private static void count(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * Whether {@code e} is Hikari's timeout for a pool whose connections were all busy. When the pool
+     * timed out because it could not open connections, the timeout carries that failure as its cause.
+     */
+    static boolean isSaturated(SQLException e) {
+        return e instanceof SQLTransientConnectionException && e.getCause() == null;
+    }
+
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.pool.getConnection()) {
+                healthy = connection.isValid(2);
+            } catch (SQLException e) {
+                if (isSaturated(e)) {
+                    // Busy, not broken: keep its current state
+                    continue;
+                }
+                healthy = false;
+            } catch (RuntimeException e) {
+                healthy = false;
+            }
+            if (healthy) {
+                replica.consecutiveFailures.set(0);
+            }
+            if (healthy != replica.healthy) {
+                replica.healthy = healthy;
+                logger.info("Replica {} is {}", replica.pool.getPoolName(), healthy ? "in rotation" : "down");
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        healthChecks.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    private static final class Replica {
+        final HikariDataSource pool;
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        volatile boolean healthy;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+
+    private final class ReadOnlyRouter extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return readOnlyConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+        }
+    }
+}
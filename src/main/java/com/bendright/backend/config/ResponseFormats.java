@@ -0,0 +1,50 @@
+package com.bendright.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Content negotiation for responses written directly to the output stream, where Spring's message
+ * converters are not involved. The first format is the default.
+ */
+public class ResponseFormats {
+
+    public record Format(MediaType mediaType, ObjectMapper mapper) {}
+
+    private final List<Format> formats;
+
+    public ResponseFormats(List<Format> formats) {
+        this.formats = formats;
+    }
+
+    /**
+     * The format the client prefers by quality, then by order in the header; the default when the header is
+     * missing, malformed, only matches by wildcard, or names nothing offered.
+     */
+    public Format negotiate(String accept) {
+        if (accept != null) {
+            try {
+                List<MediaType> requestedTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+                requestedTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+                for (MediaType requested : requestedTypes) {
+                    if (requested.isWildcardType() || requested.isWildcardSubtype() || requested.getQualityValue() == 0) {
+                        continue;
+                    }
+                    for (Format format : formats) {
+                        if (format.mediaType().isCompatibleWith(requested)) {
+                            return format;
+                        }
+                    }
+                }
+            } catch (InvalidMediaTypeException e) {
+                // Answer malformed headers with the default format
+            }
+        }
+        return formats.get(0);
+    }
+}
@@ -0,0 +1,80 @@
+package com.bendright.backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how many SQL statements Hibernate prepared for each request, as the distribution
+ * {@code http.server.requests.statements{method,uri}} ({@code uri} is the route pattern).
+ * Counting is a thread-local increment per statement; statements issued on other threads,
+ * such as signup and login work on the password hashing pool or a streaming export's async
+ * dispatch, are not attributed.
+ */
+@Configuration
+public class StatementMetricsConfig {
+
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    // One meter per route, looked up instead of rebuilt and re-registered on every request
+    private final Map<Route, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingInspector() {
+        StatementInspector inspector = sql -> {
+            int[] count = STATEMENTS.get();
+            if (count != null) {
+                count[0]++;
+            }
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> statementMetricsFilter(MeterRegistry meterRegistry) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                int[] count = new int[1];
+                STATEMENTS.set(count);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    STATEMENTS.remove();
+                    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    Route route = new Route(request.getMethod(), pattern != null ? pattern.toString() : "UNKNOWN");
+                    summaries.computeIfAbsent(route, r -> DistributionSummary.builder("http.server.requests.statements")
+                                    .description("SQL statements issued while handling a request")
+                                    .tag("method", r.method())
+                                    .tag("uri", r.uri())
+                                    .register(meterRegistry))
+                            .record(count[0]);
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        // Outside Spring Security, so principal lookups by the JWT filter are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    private record Route(String method, String uri) {}
+}
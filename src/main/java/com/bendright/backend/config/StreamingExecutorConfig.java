@@ -0,0 +1,83 @@
+package com.bendright.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Runs streamed responses (session listings and exports) on a dedicated, bounded pool instead of the
+ * servlet threads, so requests for long histories do not occupy Tomcat threads while the database is
+ * read and the JSON written. When the pool and its queue are full, new streams are refused and answered
+ * with 503 rather than queued without limit. With virtual threads enabled the pool's threads are virtual;
+ * the bounds still cap how many streams read the database at once.
+ * <p>
+ * Each task runs with the request that submitted it bound to {@link RequestContextHolder}, so the stream
+ * is routed as that user's read (see {@link ReadYourWritesTracker#currentUserId}): on the replica or
+ * primary that served the revision behind its ETag, and on the primary right after the user wrote.
+ */
+@Configuration
+public class StreamingExecutorConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final ThreadPoolTaskExecutor streamingExecutor;
+
+    public StreamingExecutorConfig(MeterRegistry meterRegistry,
+                                   @Value("${sessions.stream.threads:8}") int threads,
+                                   @Value("${sessions.stream.queue-capacity:200}") int queueCapacity,
+                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("session-stream-");
+        executor.setTaskDecorator(StreamingExecutorConfig::withCurrentRequest);
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name("session-stream-", 0).factory());
+        }
+        executor.initialize();
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "session.stream", List.of()).bindTo(meterRegistry);
+        this.streamingExecutor = executor;
+    }
+
+    /**
+     * Binds fresh attributes of the submitting request around {@code task}, as Spring MVC does for async
+     * callables: the submitting thread marks its own attributes completed once it returns.
+     */
+    static Runnable withCurrentRequest(Runnable task) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes current)) {
+            return task;
+        }
+        ServletRequestAttributes attributes = new ServletRequestAttributes(current.getRequest(), current.getResponse());
+        return () -> {
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                task.run();
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        };
+    }
+
+    ThreadPoolTaskExecutor streamingExecutor() {
+        return streamingExecutor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor);
+    }
+
+    @Override
+    public void destroy() {
+        // Not a bean of its own: an Executor bean would replace Spring Boot's applicationTaskExecutor
+        streamingExecutor.shutdown();
+    }
+}
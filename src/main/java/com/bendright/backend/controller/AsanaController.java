@@ -0,0 +1,31 @@
+package com.bendright.backend.controller;
+
+import com.bendright.backend.dto.AsanaPopularityResponse;
+import com.bendright.backend.service.AsanaPopularity;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/asanas")
+public class AsanaController {
+
+    private final AsanaPopularity asanaPopularity;
+
+    public AsanaController(AsanaPopularity asanaPopularity) {
+        this.asanaPopularity = asanaPopularity;
+    }
+
+    /**
+     * Most practiced asanas across all users, today and over the last seven days. Public; served from
+     * a snapshot refreshed every {@code asanas.popularity.refresh-interval}, so caches may keep it as long.
+     */
+    @GetMapping("/popular")
+    public ResponseEntity<AsanaPopularityResponse> popular() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(asanaPopularity.refreshInterval()).cachePublic())
+                .body(asanaPopularity.snapshot());
+    }
+}
@@ -1,18 +1,30 @@
 package com.bendright.backend.controller;
 
+import com.bendright.backend.config.ReadYourWritesTracker;
+import com.bendright.backend.dto.AuthResponse;
 import com.bendright.backend.dto.LoginRequest;
 import com.bendright.backend.dto.SignupRequest;
 import com.bendright.backend.model.User;
 import com.bendright.backend.repository.UserRepository;
 import com.bendright.backend.security.JwtService;
+import com.bendright.backend.security.PasswordHashingExecutor;
+import com.bendright.backend.security.PasswordHashingUnavailableException;
+import com.bendright.backend.security.PrincipalCache;
+import com.bendright.backend.security.TokenRevocations;
+import com.bendright.backend.security.UserAccount;
+import com.bendright.backend.security.VerifiedToken;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -22,30 +34,46 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final PrincipalCache principalCache;
+    private final PasswordHashingExecutor passwordHashing;
+    private final ReadYourWritesTracker readYourWrites;
+    private final TokenRevocations tokenRevocations;
 
     public AuthController(UserRepository userRepository,
                           PasswordEncoder passwordEncoder,
                           AuthenticationManager authenticationManager,
-                          JwtService jwtService) {
+                          JwtService jwtService,
+                          PrincipalCache principalCache,
+                          PasswordHashingExecutor passwordHashing,
+                          ReadYourWritesTracker readYourWrites,
+                          TokenRevocations tokenRevocations) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
+        this.principalCache = principalCache;
+        this.passwordHashing = passwordHashing;
+        this.readYourWrites = readYourWrites;
+        this.tokenRevocations = tokenRevocations;
     }
 
     // ✅ SIGNUP endpoint
+    // Both endpoints hash a password, so they complete on the bounded hashing pool and release the request thread
     @PostMapping("/signup")
-    public ResponseEntity<?> signup(@RequestBody SignupRequest req) {
-        // Case-insensitive email check (requires repo method: existsByEmailIgnoreCase)
-        if (userRepository.existsByEmailIgnoreCase(req.email())) {
-            return ResponseEntity
+    public CompletableFuture<ResponseEntity<?>> signup(@RequestBody SignupRequest req) {
+        // Emails are stored normalized, so this is an exact match on the unique index
+        if (userRepository.existsByEmail(User.normalizeEmail(req.email()))) {
+            return CompletableFuture.completedFuture(ResponseEntity
                     .badRequest()
                     .body(Map.of(
                             "success", false,
                             "message", "Email already registered"
-                    ));
+                    )));
         }
+        return passwordHashing.submit(() -> register(req));
+    }
 
+    private ResponseEntity<?> register(SignupRequest req) {
         // Save new user
         User user = new User(
                 req.userName(),
@@ -53,6 +81,9 @@ public class AuthController {
                 passwordEncoder.encode(req.password())
         );
         userRepository.save(user);
+        principalCache.evict(user.getId());
+        // The token returned below is used at once; its principal lookups must find the new row
+        readYourWrites.recordWrite(user.getId());
 
         // Generate JWT for instant login (encode userId and userName)
         String token = jwtService.generateToken(user.getId(), user.getUserName());
@@ -60,39 +91,26 @@ public class AuthController {
         // Return a proper JSON response with status 201
         return ResponseEntity
                 .created(URI.create("/api/users/" + user.getId()))
-                .body(Map.of(
-                        "success", true,
-                        "message", "User registered successfully",
-                        "userId", user.getId(),
-                        "email", user.getEmail(),
-                        "userName", user.getUserName(),
-                        "token", token
-                ));
+                .body(AuthResponse.registered(user.getId(), user.getEmail(), user.getUserName(), token));
     }
 
     // ✅ LOGIN endpoint
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest req) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest req) {
+        return passwordHashing.submit(() -> authenticate(req));
+    }
+
+    private ResponseEntity<?> authenticate(LoginRequest req) {
         try {
-            // Authenticate credentials
-            authenticationManager.authenticate(
+            // Authenticate credentials; the principal is the account loaded for the check, so no second lookup
+            Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(req.email(), req.password())
             );
-
-            // Find user entity and generate token after successful authentication
-            User user = userRepository.findByEmailIgnoreCase(req.email())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            UserAccount user = (UserAccount) authentication.getPrincipal();
             String token = jwtService.generateToken(user.getId(), user.getUserName());
 
             // Return success response
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "message", "Login successful",
-                    "token", token,
-                    "userId", user.getId(),
-                    "userName", user.getUserName(),
-                    "email", user.getEmail()
-            ));
+            return ResponseEntity.ok(AuthResponse.loggedIn(user.getId(), user.getEmail(), user.getUserName(), token));
         } catch (Exception e) {
             // Authentication failed
             return ResponseEntity
@@ -103,4 +121,55 @@ public class AuthController {
                     ));
         }
     }
+
+    /**
+     * Revokes the token sent with this request.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(
+            @RequestAttribute(name = JwtService.VERIFIED_TOKEN_ATTRIBUTE, required = false) VerifiedToken token) {
+        if (token == null) {
+            return unauthorized();
+        }
+        if (token.id() == null) {
+            // Issued before tokens carried an id
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "This token can only be revoked with /api/auth/logout-all"
+            ));
+        }
+        tokenRevocations.revoke(token);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Revokes every token issued to the user so far, including the one sent with this request.
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll(
+            @RequestAttribute(name = JwtService.VERIFIED_TOKEN_ATTRIBUTE, required = false) VerifiedToken token) {
+        if (token == null || token.userId() == null) {
+            return unauthorized();
+        }
+        tokenRevocations.revokeAll(token.userId());
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ResponseEntity<?> unauthorized() {
+        return ResponseEntity.status(401).body(Map.of(
+                "success", false,
+                "message", "Missing or invalid Authorization header"
+        ));
+    }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<?> handleHashingUnavailable(PasswordHashingUnavailableException e) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(
+                        "success", false,
+                        "message", "Too many sign-in attempts, please retry shortly"
+                ));
+    }
 }
@@ -1,50 +1,213 @@
 package com.bendright.backend.controller;
 
+import com.bendright.backend.config.ResponseFormats;
+import com.bendright.backend.dto.BulkSessionResponse;
+import com.bendright.backend.dto.BulkSessionResult;
 import com.bendright.backend.dto.SessionRequest;
+import com.bendright.backend.model.Asana;
+import com.bendright.backend.model.SessionStatus;
 import com.bendright.backend.model.User;
 import com.bendright.backend.repository.UserRepository;
+import com.bendright.backend.service.AsanaCatalog;
+import com.bendright.backend.service.InvalidSessionException;
 import com.bendright.backend.service.SessionService;
-import com.bendright.backend.security.JwtService;
+import com.bendright.backend.service.SessionWriteBehind;
+import com.bendright.backend.service.SessionWriteBehindUnavailableException;
+import com.bendright.backend.security.AuthenticatedUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
 public class SessionController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    // Clients may keep the response but must revalidate it; it is specific to the authenticated user
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final SessionService sessionService;
     private final UserRepository userRepository;
-    private final JwtService jwtService;
+    private final AsanaCatalog asanaCatalog;
+    private final SessionWriteBehind writeBehind;
+    private final ResponseFormats responseFormats;
+    private final int bulkMaxItems;
 
-    public SessionController(SessionService sessionService, UserRepository userRepository, JwtService jwtService) {
+    public SessionController(SessionService sessionService, UserRepository userRepository, AsanaCatalog asanaCatalog,
+                             SessionWriteBehind writeBehind, ResponseFormats responseFormats,
+                             @Value("${sessions.bulk.max-items:10000}") int bulkMaxItems) {
         this.sessionService = sessionService;
         this.userRepository = userRepository;
-        this.jwtService = jwtService;
+        this.asanaCatalog = asanaCatalog;
+        this.writeBehind = writeBehind;
+        this.responseFormats = responseFormats;
+        this.bulkMaxItems = bulkMaxItems;
     }
 
     @PostMapping("/{uid}/sessions/{pose}")
-    public ResponseEntity<?> createSession(@PathVariable Long uid,
+    public CompletableFuture<ResponseEntity<?>> createSession(@PathVariable Long uid,
             @PathVariable String pose,
-            @RequestBody SessionRequest req) {
-        User user = userRepository.findById(uid).orElseThrow(() -> new RuntimeException("User not found"));
-        var s = sessionService.createSession(user, req.status(), req.date(), pose);
-        return ResponseEntity.ok(s);
+            @RequestBody SessionRequest req,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        User user = resolveUser(uid, principal);
+        String clientKey = idempotencyKey != null ? idempotencyKey : req.clientKey();
+        SessionStatus status = SessionService.parseStatus(req.status());
+        LocalDate date = SessionService.parseDate(req.date());
+        if (clientKey != null) {
+            SessionService.validateClientKey(clientKey);
+        }
+        // Only a valid request may add a catalog entry
+        Asana asana = asanaCatalog.resolve(pose, user.getId());
+        // Keyed writes need the synchronous duplicate check; the rest may go through the write-behind queue
+        if (clientKey == null && writeBehind.isEnabled()) {
+            return writeBehind.submit(user, status, date, asana)
+                    .thenApply(s -> s.id() == null ? ResponseEntity.accepted().body(s) : ResponseEntity.ok(s));
+        }
+        var s = sessionService.createSession(user, status, date, asana, clientKey);
+        return CompletableFuture.completedFuture(ResponseEntity.ok(s));
+    }
+
+    @PostMapping("/{uid}/sessions")
+    public ResponseEntity<?> createSessions(@PathVariable Long uid,
+            @RequestBody List<SessionRequest> items,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        if (items.isEmpty() || items.size() > bulkMaxItems) {
+            return ResponseEntity.badRequest().body(Map.of("success", false,
+                    "message", "Between 1 and " + bulkMaxItems + " sessions are accepted per request"));
+        }
+        User user = resolveUser(uid, principal);
+        List<BulkSessionResult> results = sessionService.createSessions(user, items);
+        return ResponseEntity.ok(BulkSessionResponse.of(results));
     }
 
     @GetMapping("/sessions")
-    public ResponseEntity<?> listSessionsForCurrentUser(@RequestHeader(name = "Authorization", required = false) String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+    public ResponseEntity<StreamingResponseBody> listSessionsForCurrentUser(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(required = false) Long sinceRevision,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest) {
+        // The JWT filter has already verified the token and resolved the user into the security context.
+        // Errors are thrown: this method's entity type is reserved for the streamed body
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing or invalid Authorization header");
+        }
+        // Archived sessions are only part of full listings; a sync sees the live sessions
+        if (includeArchived && sinceRevision != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "includeArchived cannot be combined with sinceRevision");
+        }
+        // Each wire format is its own representation with its own ETag
+        ResponseFormats.Format format = responseFormats.negotiate(accept);
+        // Unchanged history is answered from the revision alone, before any session is loaded. The ETag is
+        // weak because the bytes also depend on the content coding; Tomcat does not compress strong ones
+        long revision = sessionService.currentRevision(principal.id());
+        String etag = "W/\"" + principal.id() + "." + revision + (sinceRevision == null ? "" : "." + sinceRevision)
+                + (includeArchived ? ".a" : "")
+                + (MediaType.APPLICATION_JSON.equals(format.mediaType()) ? "" : "." + format.mediaType().getSubtype())
+                + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        // Read and serialized on the streaming executor, row by row, after this thread is released
+        Long userId = principal.id();
+        ObjectMapper mapper = format.mapper();
+        StreamingResponseBody body;
+        if (includeArchived) {
+            body = out -> sessionService.writeSessionsWithArchive(userId, mapper, out);
+        } else if (sinceRevision == null) {
+            body = out -> sessionService.writeSessions(userId, mapper, out);
+        } else {
+            body = out -> sessionService.writeSessionsChangedSince(userId, sinceRevision, revision, mapper, out);
+        }
+        // checkNotModified already wrote the ETag; streamed entities add their headers without merging
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(format.mediaType())
+                .body(body);
+    }
+
+    @GetMapping("/sessions/page")
+    public ResponseEntity<?> listSessionPageForCurrentUser(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String status) {
+        if (principal == null) {
             return ResponseEntity.status(401).body(Map.of("success", false, "message", "Missing or invalid Authorization header"));
         }
-        String jwt = authHeader.substring(7);
-        Long uid = jwtService.extractUserId(jwt);
-        if (uid == null) {
-            return ResponseEntity.status(401).body(Map.of("success", false, "message", "Invalid token"));
+        try {
+            SessionStatus statusFilter = status == null ? null : SessionStatus.valueOf(status.toUpperCase());
+            return ResponseEntity.ok(sessionService.listSessionPage(principal.id(), cursor, from, to, statusFilter, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "Invalid cursor or status"));
+        }
+    }
+
+    @GetMapping("/sessions/export")
+    public ResponseEntity<StreamingResponseBody> exportSessionsForCurrentUser(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate since) {
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing or invalid Authorization header");
+        }
+        Long userId = principal.id();
+        // Written straight to the response stream on the streaming executor, one JSON object per line
+        StreamingResponseBody body = out -> sessionService.exportSessions(userId, since, out);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+
+    @ExceptionHandler(InvalidSessionException.class)
+    public ResponseEntity<?> handleInvalidSession(InvalidSessionException e) {
+        return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<?> handleRejectedStream(ResponseStatusException e) {
+        return ResponseEntity.status(e.getStatusCode()).body(Map.of("success", false, "message", e.getReason()));
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<?> handleStreamingSaturated(TaskRejectedException e) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("success", false, "message", "Too many listings in progress, please retry shortly"));
+    }
+
+    @ExceptionHandler(SessionWriteBehindUnavailableException.class)
+    public ResponseEntity<?> handleWriteBehindUnavailable(SessionWriteBehindUnavailableException e) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("success", false, "message", "Too many sessions being saved, please retry shortly"));
+    }
+
+    private User resolveUser(Long uid, AuthenticatedUser principal) {
+        // The authenticated user is known to exist, so a reference is enough and avoids another lookup
+        if (principal != null && principal.id().equals(uid)) {
+            return userRepository.getReferenceById(uid);
         }
-        User user = userRepository.findById(uid).orElseThrow(() -> new RuntimeException("User not found"));
-        List<?> sessions = sessionService.listSessionsForUser(user);
-        return ResponseEntity.ok(sessions);
+        return userRepository.findById(uid).orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
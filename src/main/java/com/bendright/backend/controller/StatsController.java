@@ -0,0 +1,49 @@
+package com.bendright.backend.controller;
+
+import com.bendright.backend.security.AuthenticatedUser;
+import com.bendright.backend.service.PracticeCalendarService;
+import com.bendright.backend.service.PracticeStatsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+public class StatsController {
+
+    private final PracticeStatsService practiceStatsService;
+    private final PracticeCalendarService practiceCalendarService;
+
+    public StatsController(PracticeStatsService practiceStatsService,
+                           PracticeCalendarService practiceCalendarService) {
+        this.practiceStatsService = practiceStatsService;
+        this.practiceCalendarService = practiceCalendarService;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<?> statsForCurrentUser(@AuthenticationPrincipal AuthenticatedUser principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of("success", false, "message", "Missing or invalid Authorization header"));
+        }
+        return ResponseEntity.ok(practiceStatsService.getStats(principal.id()));
+    }
+
+    @GetMapping("/stats/calendar")
+    public ResponseEntity<?> calendarForCurrentUser(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                    @RequestParam(required = false) Integer year) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of("success", false, "message", "Missing or invalid Authorization header"));
+        }
+        int y = year != null ? year : LocalDate.now().getYear();
+        if (y < 1 || y > 9999) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "year must be between 1 and 9999"));
+        }
+        return ResponseEntity.ok(practiceCalendarService.getCalendar(principal.id(), y));
+    }
+}
@@ -0,0 +1,14 @@
+package com.bendright.backend.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Most practiced asanas across all users: on {@code day} and over the seven days ending on it,
+ * most sessions first. Computed at {@code computedAt} and refreshed periodically.
+ */
+public record AsanaPopularityResponse(LocalDate day, Instant computedAt, List<AsanaTotal> today, List<AsanaTotal> week) {
+
+    public record AsanaTotal(String asana, long sessions) {}
+}
@@ -1,3 +1,15 @@
 package com.bendright.backend.dto;
 
-public record AuthResponse(String token) {}
+/**
+ * Body of a successful signup or login: the account and a token for it.
+ */
+public record AuthResponse(boolean success, String message, Long userId, String email, String userName, String token) {
+
+    public static AuthResponse registered(Long userId, String email, String userName, String token) {
+        return new AuthResponse(true, "User registered successfully", userId, email, userName, token);
+    }
+
+    public static AuthResponse loggedIn(Long userId, String email, String userName, String token) {
+        return new AuthResponse(true, "Login successful", userId, email, userName, token);
+    }
+}
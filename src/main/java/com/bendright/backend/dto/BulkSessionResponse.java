@@ -0,0 +1,16 @@
+package com.bendright.backend.dto;
+
+import java.util.List;
+
+public record BulkSessionResponse(int created, int duplicates, int rejected, List<BulkSessionResult> results) {
+
+    public static BulkSessionResponse of(List<BulkSessionResult> results) {
+        int created = 0, duplicates = 0, rejected = 0;
+        for (BulkSessionResult r : results) {
+            if (r.error() != null) rejected++;
+            else if (r.duplicate()) duplicates++;
+            else created++;
+        }
+        return new BulkSessionResponse(created, duplicates, rejected, results);
+    }
+}
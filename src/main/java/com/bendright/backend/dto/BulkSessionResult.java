@@ -0,0 +1,21 @@
+package com.bendright.backend.dto;
+
+/**
+ * Outcome for one item of a bulk session upload, in request order.
+ * Exactly one of {@code id} (stored) or {@code error} (rejected) is set; {@code duplicate}
+ * marks items whose client key had already been stored, in which case {@code id} is the existing row.
+ */
+public record BulkSessionResult(int index, Long id, boolean duplicate, String error) {
+
+    public static BulkSessionResult created(int index, Long id) {
+        return new BulkSessionResult(index, id, false, null);
+    }
+
+    public static BulkSessionResult duplicate(int index, Long id) {
+        return new BulkSessionResult(index, id, true, null);
+    }
+
+    public static BulkSessionResult rejected(int index, String error) {
+        return new BulkSessionResult(index, null, false, error);
+    }
+}
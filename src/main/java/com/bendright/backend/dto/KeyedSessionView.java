@@ -0,0 +1,16 @@
+package com.bendright.backend.dto;
+
+import com.bendright.backend.model.Asana;
+import com.bendright.backend.model.SessionStatus;
+
+import java.time.LocalDate;
+
+/**
+ * A stored session together with the client key it was written under.
+ */
+public record KeyedSessionView(String clientKey, Long id, SessionStatus status, LocalDate date, Asana asana) {
+
+    public SessionView view() {
+        return new SessionView(id, status, date, asana);
+    }
+}
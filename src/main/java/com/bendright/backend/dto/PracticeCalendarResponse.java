@@ -0,0 +1,16 @@
+package com.bendright.backend.dto;
+
+/**
+ * One user's practice days of one year. {@code practiced} and {@code completed} are base64 bitmaps of 366 bits
+ * (46 bytes): bit {@code n}, bit {@code n % 8} of byte {@code n / 8} counting from the least significant, is
+ * day-of-year {@code n + 1}. {@code currentStreak} is as of today, across years; {@code longestStreak} is the
+ * longest run within {@code year}.
+ */
+public record PracticeCalendarResponse(int year,
+                                       int days,
+                                       String practiced,
+                                       String completed,
+                                       int practicedDays,
+                                       int completedDays,
+                                       int currentStreak,
+                                       int longestStreak) {}
@@ -0,0 +1,23 @@
+package com.bendright.backend.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Dashboard statistics for one user. {@code weekly} and {@code monthly} cover the most recent
+ * periods (weeks start on Monday), oldest first, including periods without practice.
+ */
+public record PracticeStatsResponse(long totalSessions,
+                                    long completedSessions,
+                                    double completionRate,
+                                    int currentStreak,
+                                    int longestStreak,
+                                    LocalDate lastPracticeDate,
+                                    List<AsanaCount> asanas,
+                                    List<PeriodCount> weekly,
+                                    List<PeriodCount> monthly) {
+
+    public record AsanaCount(String asana, long total, long completed) {}
+
+    public record PeriodCount(LocalDate start, long total, long completed) {}
+}
@@ -0,0 +1,8 @@
+package com.bendright.backend.dto;
+
+import java.util.List;
+
+/**
+ * One page of a user's sessions, newest first. {@code nextCursor} is null on the last page.
+ */
+public record SessionPage(List<SessionView> items, String nextCursor) {}
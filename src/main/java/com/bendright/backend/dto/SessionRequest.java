@@ -1,3 +1,3 @@
 package com.bendright.backend.dto;
 
-public record SessionRequest(String status, String date, String asana) {}
+public record SessionRequest(String status, String date, String asana, String clientKey) {}
@@ -0,0 +1,18 @@
+package com.bendright.backend.dto;
+
+import com.bendright.backend.model.Asana;
+import com.bendright.backend.model.Session;
+import com.bendright.backend.model.SessionStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a session row, selected directly by JPQL constructor expressions
+ * so listings never hydrate managed {@link Session} entities.
+ */
+public record SessionView(Long id, SessionStatus status, LocalDate date, Asana asana) {
+
+    public static SessionView from(Session s) {
+        return new SessionView(s.getId(), s.getStatus(), s.getDate(), s.getAsana());
+    }
+}
@@ -0,0 +1,16 @@
+package com.bendright.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * An entry of the asana catalog as held in memory. Instances are interned by the catalog, so every
+ * session of one asana shares the same object; it serializes as its display name.
+ */
+public record Asana(short id, String name) {
+
+    @JsonValue
+    @Override
+    public String name() {
+        return name;
+    }
+}
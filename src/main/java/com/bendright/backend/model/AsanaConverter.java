@@ -0,0 +1,39 @@
+package com.bendright.backend.model;
+
+import com.bendright.backend.service.AsanaCatalog;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Maps the {@code asana_id} column to the catalog's interned {@link Asana}, so hydrating a row
+ * allocates no name string. Hibernate obtains the converter from the Spring context.
+ */
+@Converter
+public class AsanaConverter implements AttributeConverter<Asana, Short> {
+
+    // The catalog needs the EntityManagerFactory that creates this converter, so resolve it on first use
+    private final ObjectProvider<AsanaCatalog> catalogProvider;
+    private volatile AsanaCatalog catalog;
+
+    public AsanaConverter(ObjectProvider<AsanaCatalog> catalogProvider) {
+        this.catalogProvider = catalogProvider;
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(Asana asana) {
+        return asana == null ? null : asana.id();
+    }
+
+    @Override
+    public Asana convertToEntityAttribute(Short id) {
+        if (id == null) {
+            return null;
+        }
+        AsanaCatalog c = catalog;
+        if (c == null) {
+            catalog = c = catalogProvider.getObject();
+        }
+        return c.byId(id);
+    }
+}
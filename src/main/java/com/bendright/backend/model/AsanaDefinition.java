@@ -0,0 +1,28 @@
+package com.bendright.backend.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Row of the asana catalog table. Request paths use the interned {@link Asana} values held by
+ * {@code AsanaCatalog} instead.
+ */
+@Entity
+@Table(name = "asanas")
+public class AsanaDefinition {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Short id;
+
+    @Column(nullable = false)
+    private String name;
+
+    // Trimmed, lower-cased name; unique
+    @Column(name = "normalized_name", nullable = false, unique = true)
+    private String normalizedName;
+
+    public AsanaDefinition() {}
+
+    public Short getId() { return id; }
+    public String getName() { return name; }
+    public String getNormalizedName() { return normalizedName; }
+}
@@ -0,0 +1,51 @@
+package com.bendright.backend.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Number of sessions a user logged for one asana of the catalog.
+ */
+@Entity
+@Table(name = "user_asana_practice")
+@IdClass(AsanaPractice.Key.class)
+public class AsanaPractice {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "asana_id")
+    private short asanaId;
+
+    @Column(nullable = false)
+    private long total;
+
+    @Column(nullable = false)
+    private long completed;
+
+    public AsanaPractice() {}
+
+    public Long getUserId() { return userId; }
+    public short getAsanaId() { return asanaId; }
+    public long getTotal() { return total; }
+    public long getCompleted() { return completed; }
+
+    public static class Key implements Serializable {
+        private Long userId;
+        private short asanaId;
+
+        public Key() {}
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(userId, key.userId) && asanaId == key.asanaId;
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(userId, asanaId); }
+    }
+}
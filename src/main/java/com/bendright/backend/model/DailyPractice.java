@@ -0,0 +1,51 @@
+package com.bendright.backend.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Number of sessions a user logged on one day.
+ */
+@Entity
+@Table(name = "user_daily_practice")
+@IdClass(DailyPractice.Key.class)
+public class DailyPractice {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private int total;
+
+    @Column(nullable = false)
+    private int completed;
+
+    public DailyPractice() {}
+
+    public Long getUserId() { return userId; }
+    public LocalDate getDay() { return day; }
+    public int getTotal() { return total; }
+    public int getCompleted() { return completed; }
+
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate day;
+
+        public Key() {}
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(userId, key.userId) && Objects.equals(day, key.day);
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(userId, day); }
+    }
+}
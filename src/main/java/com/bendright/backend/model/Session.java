@@ -6,10 +6,17 @@ import java.time.LocalDate;
 import java.util.Objects;
 
 @Entity
-@Table(name = "sessions")
+@Table(name = "sessions", indexes = {
+        // Serves per-user listings and keyset pagination on (date, id)
+        @Index(name = "idx_sessions_user_date_id", columnList = "user_id, date, id"),
+        // Serves delta sync (sessions changed since a revision)
+        @Index(name = "idx_sessions_user_revision", columnList = "user_id, revision")
+})
 public class Session {
+    // Pooled sequence (see V2 migration) so Hibernate can batch inserts; IDENTITY disables batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sessions_id_seq")
+    @SequenceGenerator(name = "sessions_id_seq", sequenceName = "sessions_id_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -19,8 +26,20 @@ public class Session {
     @Column(nullable = false)
     private LocalDate date;
 
+    // Catalog id; the converter hands out the catalog's shared instance
+    @Convert(converter = AsanaConverter.class)
+    @Column(name = "asana_id", nullable = false)
+    private Asana asana;
+
+    // Optional client-supplied idempotency key; uniqueness per user is kept in session_client_keys
+    @Column(name = "client_key", length = 64)
+    @JsonIgnore
+    private String clientKey;
+
+    // User's session revision at the time this row was last written (see SessionRevision)
     @Column(nullable = false)
-    private String asana;
+    @JsonIgnore
+    private long revision;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
@@ -29,7 +48,7 @@ public class Session {
 
     public Session() {}
 
-    public Session(SessionStatus status, LocalDate date, String asana, User user) {
+    public Session(SessionStatus status, LocalDate date, Asana asana, User user) {
         this.status = status;
         this.date = date;
         this.asana = asana;
@@ -42,8 +61,12 @@ public class Session {
     public void setStatus(SessionStatus status) { this.status = status; }
     public LocalDate getDate() { return date; }
     public void setDate(LocalDate date) { this.date = date; }
-    public String getAsana() { return asana; }
-    public void setAsana(String asana) { this.asana = asana; }
+    public Asana getAsana() { return asana; }
+    public void setAsana(Asana asana) { this.asana = asana; }
+    public String getClientKey() { return clientKey; }
+    public void setClientKey(String clientKey) { this.clientKey = clientKey; }
+    public long getRevision() { return revision; }
+    public void setRevision(long revision) { this.revision = revision; }
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
 
@@ -0,0 +1,60 @@
+package com.bendright.backend.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Idempotency key of one user, pointing at the session stored by the first write that used it
+ * (see the V11 migration). The session date is kept so the session is found in its partition.
+ */
+@Entity
+@Table(name = "session_client_keys")
+@IdClass(SessionClientKey.Key.class)
+public class SessionClientKey {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "client_key", length = 64)
+    private String clientKey;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    public SessionClientKey() {}
+
+    public SessionClientKey(Long userId, String clientKey, Long sessionId, LocalDate date) {
+        this.userId = userId;
+        this.clientKey = clientKey;
+        this.sessionId = sessionId;
+        this.date = date;
+    }
+
+    public Long getUserId() { return userId; }
+    public String getClientKey() { return clientKey; }
+    public Long getSessionId() { return sessionId; }
+    public LocalDate getDate() { return date; }
+
+    public static class Key implements Serializable {
+        private Long userId;
+        private String clientKey;
+
+        public Key() {}
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(userId, key.userId) && Objects.equals(clientKey, key.clientKey);
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(userId, clientKey); }
+    }
+}
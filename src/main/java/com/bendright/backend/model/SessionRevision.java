@@ -0,0 +1,22 @@
+package com.bendright.backend.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Latest session revision of one user; a user without a row is at revision 0.
+ */
+@Entity
+@Table(name = "user_session_revisions")
+public class SessionRevision {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long revision;
+
+    public SessionRevision() {}
+
+    public Long getUserId() { return userId; }
+    public long getRevision() { return revision; }
+}
@@ -0,0 +1,44 @@
+package com.bendright.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One logout: a single token when {@code tokenId} is set, otherwise every token of the user issued up
+ * to {@code revokedAt}. Kept until {@code expiresAt}, after which no affected token is accepted anyway.
+ */
+@Entity
+@Table(name = "token_revocations")
+public class TokenRevocation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "token_id", length = 36)
+    private String tokenId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public TokenRevocation() {}
+
+    public TokenRevocation(Long userId, String tokenId, Instant revokedAt, Instant expiresAt) {
+        this.userId = userId;
+        this.tokenId = tokenId;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public String getTokenId() { return tokenId; }
+    public Instant getRevokedAt() { return revokedAt; }
+    public Instant getExpiresAt() { return expiresAt; }
+}
@@ -2,6 +2,7 @@ package com.bendright.backend.model;
 
 import jakarta.persistence.*;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
 
@@ -28,14 +29,22 @@ public class User {
 
     public User(String userName, String email, String password) {
         this.userName = userName;
-        this.email = email;
+        this.email = normalizeEmail(email);
         this.password = password;
     }
 
+    /**
+     * Canonical form in which emails are stored and looked up: trimmed and lower-cased. V5 normalized
+     * existing rows by the same rule.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getEmail() { return email; }
-    public void setEmail(String email) { this.email = email; }
+    public void setEmail(String email) { this.email = normalizeEmail(email); }
     public String getPassword() { return password; }
     public void setPassword(String password) { this.password = password; }
     public String getUserName() { return userName; }
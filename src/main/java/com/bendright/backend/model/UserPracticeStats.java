@@ -0,0 +1,73 @@
+package com.bendright.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Running practice totals for one user. The streak columns describe the most recent run of
+ * consecutive practice days, whose end is always the user's latest practice day.
+ */
+@Entity
+@Table(name = "user_practice_stats")
+public class UserPracticeStats {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "total_sessions", nullable = false)
+    private long totalSessions;
+
+    @Column(name = "completed_sessions", nullable = false)
+    private long completedSessions;
+
+    @Column(name = "streak_start")
+    private LocalDate streakStart;
+
+    @Column(name = "streak_end")
+    private LocalDate streakEnd;
+
+    @Column(name = "longest_streak", nullable = false)
+    private int longestStreak;
+
+    public UserPracticeStats() {}
+
+    public Long getUserId() { return userId; }
+    public long getTotalSessions() { return totalSessions; }
+    public long getCompletedSessions() { return completedSessions; }
+    public LocalDate getStreakStart() { return streakStart; }
+    public LocalDate getStreakEnd() { return streakEnd; }
+    public int getLongestStreak() { return longestStreak; }
+
+    public void addSessions(long total, long completed) {
+        this.totalSessions += total;
+        this.completedSessions += completed;
+    }
+
+    /**
+     * Folds one practice day into the streak columns.
+     *
+     * @return false if the day lies before the most recent run, in which case the streaks
+     *         must be recomputed from the daily rows
+     */
+    public boolean applyPracticeDay(LocalDate day) {
+        if (streakEnd == null) {
+            streakStart = day;
+            streakEnd = day;
+        } else if (day.isAfter(streakEnd)) {
+            if (!day.equals(streakEnd.plusDays(1))) {
+                streakStart = day;
+            }
+            streakEnd = day;
+        } else if (day.isBefore(streakStart)) {
+            return false;
+        }
+        longestStreak = Math.max(longestStreak, streakLength());
+        return true;
+    }
+
+    /** Length of the most recent run, or 0 if the user has never practiced. */
+    public int streakLength() {
+        return streakEnd == null ? 0 : (int) ChronoUnit.DAYS.between(streakStart, streakEnd) + 1;
+    }
+}
@@ -0,0 +1,29 @@
+package com.bendright.backend.repository;
+
+import com.bendright.backend.model.AsanaPractice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface AsanaPracticeRepository extends JpaRepository<AsanaPractice, AsanaPractice.Key> {
+
+    List<AsanaPractice> findByUserIdOrderByTotalDesc(Long userId);
+
+    @Modifying
+    @Query(value = "insert into user_asana_practice (user_id, asana_id, total, completed) values (:userId, :asanaId, :total, :completed)"
+            + " on conflict (user_id, asana_id) do update set total = user_asana_practice.total + excluded.total,"
+            + " completed = user_asana_practice.completed + excluded.completed", nativeQuery = true)
+    void increment(Long userId, short asanaId, long total, long completed);
+
+    @Modifying
+    @Query(value = "delete from user_asana_practice where user_id between :lo and :hi", nativeQuery = true)
+    void deleteRange(long lo, long hi);
+
+    @Modifying
+    @Query(value = "insert into user_asana_practice (user_id, asana_id, total, completed)"
+            + " select user_id, asana_id, count(*), count(*) filter (where status = 'COMPLETED')"
+            + " from sessions_with_archive where user_id between :lo and :hi group by user_id, asana_id", nativeQuery = true)
+    void insertFromSessions(long lo, long hi);
+}
@@ -0,0 +1,32 @@
+package com.bendright.backend.repository;
+
+import com.bendright.backend.model.DailyPractice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyPracticeRepository extends JpaRepository<DailyPractice, DailyPractice.Key> {
+
+    List<DailyPractice> findByUserIdAndDayGreaterThanEqualOrderByDay(Long userId, LocalDate from);
+
+    List<DailyPractice> findByUserIdAndDayBetween(Long userId, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query(value = "insert into user_daily_practice (user_id, day, total, completed) values (:userId, :day, :total, :completed)"
+            + " on conflict (user_id, day) do update set total = user_daily_practice.total + excluded.total,"
+            + " completed = user_daily_practice.completed + excluded.completed", nativeQuery = true)
+    void increment(Long userId, LocalDate day, int total, int completed);
+
+    @Modifying
+    @Query(value = "delete from user_daily_practice where user_id between :lo and :hi", nativeQuery = true)
+    void deleteRange(long lo, long hi);
+
+    @Modifying
+    @Query(value = "insert into user_daily_practice (user_id, day, total, completed)"
+            + " select user_id, date, count(*), count(*) filter (where status = 'COMPLETED')"
+            + " from sessions_with_archive where user_id between :lo and :hi group by user_id, date", nativeQuery = true)
+    void insertFromSessions(long lo, long hi);
+}
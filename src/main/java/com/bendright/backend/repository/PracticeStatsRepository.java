@@ -0,0 +1,63 @@
+package com.bendright.backend.repository;
+
+import com.bendright.backend.model.UserPracticeStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface PracticeStatsRepository extends JpaRepository<UserPracticeStats, Long> {
+
+    @Modifying
+    @Query(value = "insert into user_practice_stats (user_id) values (:userId) on conflict (user_id) do nothing",
+            nativeQuery = true)
+    void ensureExists(Long userId);
+
+    /**
+     * Row lock that serializes aggregate updates for one user, including against a concurrent rebuild.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UserPracticeStats s where s.userId = :userId")
+    UserPracticeStats lockByUserId(Long userId);
+
+    // ---- Rebuild of a user id range [lo, hi] ----
+
+    @Modifying
+    @Query(value = "insert into user_practice_stats (user_id) select id from users where id between :lo and :hi"
+            + " on conflict (user_id) do nothing", nativeQuery = true)
+    void ensureExistsForRange(long lo, long hi);
+
+    @Query(value = "select user_id from user_practice_stats where user_id between :lo and :hi for update",
+            nativeQuery = true)
+    List<Long> lockRange(long lo, long hi);
+
+    @Modifying
+    @Query(value = "update user_practice_stats s set total_sessions = coalesce(t.total, 0),"
+            + " completed_sessions = coalesce(t.completed, 0), streak_start = null, streak_end = null, longest_streak = 0"
+            + " from (select u.user_id, sum(d.total) as total, sum(d.completed) as completed"
+            + "       from user_practice_stats u left join user_daily_practice d on d.user_id = u.user_id"
+            + "       where u.user_id between :lo and :hi group by u.user_id) t"
+            + " where s.user_id = t.user_id", nativeQuery = true)
+    void recomputeTotals(long lo, long hi);
+
+    /**
+     * Recomputes streak columns from the daily rows: consecutive days share the same
+     * {@code day - row_number()} value, so each such group is one run.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update user_practice_stats s"
+            + " set streak_start = r.run_start, streak_end = r.run_end, longest_streak = r.longest"
+            + " from (select distinct on (user_id) user_id, run_start, run_end,"
+            + "              max(run_end - run_start + 1) over (partition by user_id) as longest"
+            + "       from (select user_id, min(day) as run_start, max(day) as run_end"
+            + "             from (select user_id, day,"
+            + "                          day - (row_number() over (partition by user_id order by day))::int as island"
+            + "                   from user_daily_practice where user_id between :lo and :hi) d"
+            + "             group by user_id, island) runs"
+            + "       order by user_id, run_end desc) r"
+            + " where s.user_id = r.user_id", nativeQuery = true)
+    void recomputeStreaks(long lo, long hi);
+}
@@ -1,11 +1,79 @@
 package com.bendright.backend.repository;
 
+import com.bendright.backend.dto.SessionView;
 import com.bendright.backend.model.Session;
 import com.bendright.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface SessionRepository extends JpaRepository<Session, Long> {
+public interface SessionRepository extends JpaRepository<Session, Long>, SessionRepositoryCustom {
 	List<Session> findByUser(User user);
+
+	// Listing streams: projections are read in fetch-size chunks and written out as they arrive
+	// (requires an open transaction); nothing enters the persistence context
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("select new com.bendright.backend.dto.SessionView(s.id, s.status, s.date, s.asana)"
+			+ " from Session s where s.user.id = :userId order by s.date, s.id")
+	Stream<SessionView> streamViewsByUserId(Long userId);
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("select new com.bendright.backend.dto.SessionView(s.id, s.status, s.date, s.asana)"
+			+ " from Session s where s.user.id = :userId and s.revision > :revision order by s.date, s.id")
+	Stream<SessionView> streamViewsByUserIdChangedAfter(Long userId, long revision);
+
+	// Live and archived sessions as (id, status, date, asana_id) rows; the view is not mapped as an entity
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query(value = "select id, status, date, asana_id from sessions_with_archive where user_id = :userId order by date, id",
+			nativeQuery = true)
+	Stream<Object[]> streamRowsWithArchiveByUserId(Long userId);
+
+	// Export streams: rows are pulled from Postgres in fetch-size chunks (requires an open transaction)
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("select s from Session s where s.user.id = :userId order by s.date, s.id")
+	Stream<Session> streamByUserId(Long userId);
+
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("select s from Session s where s.user.id = :userId and s.date >= :since order by s.date, s.id")
+	Stream<Session> streamByUserIdSince(Long userId, LocalDate since);
+
+	/**
+	 * Inserts a keyed session unless the user already used the client key, for any date. The key row and
+	 * the session are written by one statement; the primary key of {@code session_client_keys} arbitrates
+	 * concurrent retries, so this is safe without a prior read. The user's revision is bumped (as by
+	 * {@link SessionRevisionRepository#nextRevision}) and stamped on the row only when the session is
+	 * stored, so a repeated key leaves the revision, and with it the listing ETag, unchanged.
+	 *
+	 * @return the new id, or empty if the key was already taken
+	 */
+	@Query(value = "with k as (insert into session_client_keys (user_id, client_key, session_id, date)"
+			+ " values (:userId, :clientKey, nextval('sessions_id_seq'), :date)"
+			+ " on conflict (user_id, client_key) do nothing returning session_id),"
+			+ " r as (insert into user_session_revisions (user_id, revision) select :userId, 1 from k"
+			+ " on conflict (user_id) do update set revision = user_session_revisions.revision + 1"
+			+ " returning revision)"
+			+ " insert into sessions (id, status, date, asana_id, user_id, client_key, revision)"
+			+ " select k.session_id, :status, :date, :asanaId, :userId, :clientKey, r.revision from k, r"
+			+ " returning id", nativeQuery = true)
+	Optional<Long> insertIfAbsent(String status, LocalDate date, short asanaId, Long userId, String clientKey);
+
+	// Sessions stored under the given keys, live or archived, as (client_key, id, status, date, asana_id) rows
+	@Query(value = "select k.client_key, s.id, s.status, s.date, s.asana_id from session_client_keys k"
+			+ " join sessions_with_archive s on s.user_id = k.user_id and s.date = k.date and s.id = k.session_id"
+			+ " where k.user_id = :userId and k.client_key in :clientKeys", nativeQuery = true)
+	List<Object[]> findRowsByUserIdAndClientKeyIn(Long userId, Collection<String> clientKeys);
 }
@@ -0,0 +1,18 @@
+package com.bendright.backend.repository;
+
+import com.bendright.backend.dto.SessionCursor;
+import com.bendright.backend.dto.SessionView;
+import com.bendright.backend.model.SessionStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SessionRepositoryCustom {
+
+    /**
+     * Keyset page of a user's sessions ordered by {@code (date, id)} descending, starting strictly
+     * after {@code after}. Every filter argument except {@code userId} may be null.
+     */
+    List<SessionView> findPage(Long userId, SessionCursor after, LocalDate from, LocalDate to,
+                               SessionStatus status, int limit);
+}
@@ -0,0 +1,44 @@
+package com.bendright.backend.repository;
+
+import com.bendright.backend.dto.SessionCursor;
+import com.bendright.backend.dto.SessionView;
+import com.bendright.backend.model.SessionStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDate;
+import java.util.List;
+
+class SessionRepositoryImpl implements SessionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SessionView> findPage(Long userId, SessionCursor after, LocalDate from, LocalDate to,
+                                      SessionStatus status, int limit) {
+        // Only the filters actually supplied end up in the query, so Postgres can seek
+        // idx_sessions_user_date_id instead of evaluating "param is null" branches.
+        StringBuilder jpql = new StringBuilder(
+                "select new com.bendright.backend.dto.SessionView(s.id, s.status, s.date, s.asana)"
+                        + " from Session s where s.user.id = :userId");
+        if (after != null) jpql.append(" and (s.date, s.id) < (:afterDate, :afterId)");
+        if (from != null) jpql.append(" and s.date >= :from");
+        if (to != null) jpql.append(" and s.date <= :to");
+        if (status != null) jpql.append(" and s.status = :status");
+        jpql.append(" order by s.date desc, s.id desc");
+
+        TypedQuery<SessionView> query = entityManager.createQuery(jpql.toString(), SessionView.class)
+                .setParameter("userId", userId)
+                .setMaxResults(limit);
+        if (after != null) {
+            query.setParameter("afterDate", after.date());
+            query.setParameter("afterId", after.id());
+        }
+        if (from != null) query.setParameter("from", from);
+        if (to != null) query.setParameter("to", to);
+        if (status != null) query.setParameter("status", status);
+        return query.getResultList();
+    }
+}
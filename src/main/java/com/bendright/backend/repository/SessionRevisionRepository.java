@@ -0,0 +1,22 @@
+package com.bendright.backend.repository;
+
+import com.bendright.backend.model.SessionRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface SessionRevisionRepository extends JpaRepository<SessionRevision, Long> {
+
+    @Query("select r.revision from SessionRevision r where r.userId = :userId")
+    Optional<Long> findRevision(Long userId);
+
+    /**
+     * Increments the user's revision and returns it. The row stays locked until the transaction ends,
+     * so concurrent writers for the same user get increasing revisions in commit order.
+     */
+    @Query(value = "insert into user_session_revisions (user_id, revision) values (:userId, 1)"
+            + " on conflict (user_id) do update set revision = user_session_revisions.revision + 1"
+            + " returning revision", nativeQuery = true)
+    long nextRevision(Long userId);
+}
@@ -0,0 +1,21 @@
+package com.bendright.backend.repository;
+
+import com.bendright.backend.model.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    @Query("select r from TokenRevocation r where r.revokedAt >= :since and r.expiresAt > :now")
+    List<TokenRevocation> findActiveRevokedSince(Instant since, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TokenRevocation r where r.expiresAt <= :now")
+    int deleteExpired(Instant now);
+}
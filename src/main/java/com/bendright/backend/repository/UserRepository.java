@@ -2,10 +2,15 @@ package com.bendright.backend.repository;
 
 import com.bendright.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    boolean existsByEmailIgnoreCase(String email);
-    Optional<User> findByEmailIgnoreCase(String email);
+    // Emails are stored normalized (see User.normalizeEmail), so these are plain index lookups
+    boolean existsByEmail(String email);
+    Optional<User> findByEmail(String email);
 
+    @Query("select max(u.id) from User u")
+    Long findMaxId();
 }
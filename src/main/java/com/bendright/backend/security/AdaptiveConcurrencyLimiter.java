@@ -0,0 +1,106 @@
+package com.bendright.backend.security;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive cap on concurrently executing requests (additive increase, multiplicative decrease). Completed
+ * requests are judged per window: when more than a tenth of them were slower than their latency target or
+ * failed for lack of capacity, the limit shrinks by {@code backoffRatio}; otherwise it grows by one if the
+ * window used at least half of it. Callers acquire with a share of the limit, so lower-priority work is
+ * turned away first as the limit is approached. Admission is a single CAS.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long windowNanos;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder congested = new LongAdder();
+    // Only one thread closes a window; the others record and move on
+    private final ReentrantLock windowLock = new ReentrantLock();
+    private volatile int limit;
+    private volatile boolean used;
+    private volatile long windowStart;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long windowNanos) {
+        if (minLimit < 1 || minLimit > maxLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("need 1 <= min-limit <= max-limit and 0 < backoff-ratio < 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.windowNanos = windowNanos;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.windowStart = System.nanoTime();
+    }
+
+    /**
+     * Admits one request if fewer than {@code share} of the limit are executing. Every admitted request must
+     * be {@link #release released} exactly once.
+     */
+    public boolean tryAcquire(double share) {
+        int current = limit;
+        int cap = Math.max(1, (int) (current * share));
+        int n;
+        do {
+            n = inflight.get();
+            if (n >= cap) {
+                return false;
+            }
+        } while (!inflight.compareAndSet(n, n + 1));
+        if (!used && (n + 1) * 2 >= current) {
+            used = true;
+        }
+        return true;
+    }
+
+    /**
+     * Ends an admitted request.
+     *
+     * @param congested whether it ran over its latency target or failed for lack of capacity downstream
+     */
+    public void release(boolean congested) {
+        inflight.decrementAndGet();
+        samples.increment();
+        if (congested) {
+            this.congested.increment();
+        }
+        long now = System.nanoTime();
+        if (now - windowStart >= windowNanos && windowLock.tryLock()) {
+            try {
+                if (now - windowStart >= windowNanos) {
+                    closeWindow(now);
+                }
+            } finally {
+                windowLock.unlock();
+            }
+        }
+    }
+
+    private void closeWindow(long now) {
+        long n = samples.sumThenReset();
+        long c = congested.sumThenReset();
+        windowStart = now;
+        if (n == 0) {
+            return;
+        }
+        if (c * 10 > n) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        } else if (used) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        used = false;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+}
@@ -0,0 +1,21 @@
+package com.bendright.backend.security;
+
+import com.bendright.backend.model.User;
+
+import java.security.Principal;
+
+/**
+ * Lightweight principal placed in the security context for JWT-authenticated requests.
+ * Deliberately carries no password hash.
+ */
+public record AuthenticatedUser(Long id, String email, String userName) implements Principal {
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getUserName());
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,70 @@
+package com.bendright.backend.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings. {@link #mightContain} never misses an added key but may report
+ * keys that were not added, with a rate that grows with the number of keys. Bits are set with CAS, so
+ * adds and lookups need no lock. Keys are hashed through {@link String#hashCode()}, which strings cache,
+ * so a lookup for a string seen before costs a few multiplications and memory reads.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final int bitMask;
+    private final int hashes;
+
+    /**
+     * @param bits size of the filter, rounded up to a power of two (at least 64)
+     * @param hashes bits set per key
+     */
+    public BloomFilter(int bits, int hashes) {
+        if (bits < 1 || hashes < 1) {
+            throw new IllegalArgumentException("bits and hashes must be positive");
+        }
+        int size = Math.max(64, Integer.highestOneBit(bits - 1) << 1);
+        this.words = new AtomicLongArray(size >>> 6);
+        this.bitMask = size - 1;
+        this.hashes = hashes;
+    }
+
+    public void add(String key) {
+        long hash = mix(key.hashCode());
+        int h1 = (int) hash;
+        // Odd, so the probes of one key cover distinct bits
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & bitMask;
+            long mask = 1L << bit;
+            int index = bit >>> 6;
+            long word;
+            while (((word = words.get(index)) & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+                // Another bit of this word was set concurrently; retry
+            }
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hash = mix(key.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & bitMask;
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // MurmurHash3's 64-bit finalizer: spreads the 32-bit hash over both halves used by double hashing
+    private static long mix(int value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,154 @@
+package com.bendright.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Load shedding for {@code /api} requests, first in the security chain: at most
+ * {@link AdaptiveConcurrencyLimiter#limit()} requests execute at once, and the limit follows observed
+ * latency, so when the database slows down requests are turned away with a fast 503 instead of queueing
+ * for connections. Requests fall into the rate limiter's routes, each admitted up to its share of the
+ * limit: authenticated reads may use all of it, writes and then {@code /api/auth/**} (password hashing)
+ * are shed earlier. Streaming exports run on their own bounded pool and are not limited here.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH_PREFIX = "/api/auth/";
+    private static final String API_PREFIX = "/api/";
+    private static final String EXPORT_PATH = "/api/sessions/export";
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Route auth;
+    private final Route read;
+    private final Route write;
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  @Value("${concurrency-limit.enabled:true}") boolean enabled,
+                                  @Value("${concurrency-limit.initial-limit:100}") int initialLimit,
+                                  @Value("${concurrency-limit.min-limit:20}") int minLimit,
+                                  @Value("${concurrency-limit.max-limit:400}") int maxLimit,
+                                  @Value("${concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+                                  @Value("${concurrency-limit.window:100ms}") Duration window,
+                                  @Value("${concurrency-limit.auth.share:0.5}") double authShare,
+                                  @Value("${concurrency-limit.auth.latency-target:2s}") Duration authTarget,
+                                  @Value("${concurrency-limit.read.share:1.0}") double readShare,
+                                  @Value("${concurrency-limit.read.latency-target:250ms}") Duration readTarget,
+                                  @Value("${concurrency-limit.write.share:0.8}") double writeShare,
+                                  @Value("${concurrency-limit.write.latency-target:500ms}") Duration writeTarget) {
+        this.enabled = enabled;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoffRatio, window.toNanos());
+        this.auth = new Route("auth", authShare, authTarget, meterRegistry);
+        this.read = new Route("read", readShare, readTarget, meterRegistry);
+        this.write = new Route("write", writeShare, writeTarget, meterRegistry);
+        Gauge.builder("http.server.requests.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .description("Requests allowed to execute at once")
+                .register(meterRegistry);
+        Gauge.builder("http.server.requests.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::inflight)
+                .description("Requests executing under the concurrency limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !enabled
+                || "OPTIONS".equals(request.getMethod())
+                || !uri.startsWith(API_PREFIX)
+                || uri.startsWith(EXPORT_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Route route = request.getRequestURI().startsWith(AUTH_PREFIX) ? auth
+                : "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()) ? read : write;
+        if (!limiter.tryAcquire(route.share)) {
+            route.shed.increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType("application/json");
+            response.getWriter().write("{\"success\":false,\"message\":\"Service busy, please retry shortly\"}");
+            return;
+        }
+
+        long started = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Login, signup and write-behind creates finish on other threads; the slot is held until then
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        release(route, started, event.getSuppliedResponse(), released);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        release(route, started, null, released);
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        release(route, started, event.getSuppliedResponse(), released);
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                        event.getAsyncContext().addListener(this);
+                    }
+                });
+            } else {
+                release(route, started, response, released);
+            }
+        }
+    }
+
+    /**
+     * @param response the completed response, or null if the request timed out
+     */
+    private void release(Route route, long started, ServletResponse response, AtomicBoolean released) {
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+        int status = response instanceof HttpServletResponse http ? http.getStatus() : HttpServletResponse.SC_GATEWAY_TIMEOUT;
+        // 503s from further down (connection guard, hashing queue, write-behind queue) mean capacity ran out
+        boolean overloaded = status == HttpServletResponse.SC_SERVICE_UNAVAILABLE
+                || status == HttpServletResponse.SC_GATEWAY_TIMEOUT;
+        limiter.release(overloaded || System.nanoTime() - started > route.latencyTargetNanos);
+    }
+
+    private static final class Route {
+        final double share;
+        final long latencyTargetNanos;
+        final Counter shed;
+
+        Route(String name, double share, Duration latencyTarget, MeterRegistry meterRegistry) {
+            this.share = share;
+            this.latencyTargetNanos = latencyTarget.toNanos();
+            this.shed = Counter.builder("http.server.requests.shed")
+                    .description("Requests rejected with 503 by the concurrency limiter")
+                    .tag("route", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.bendright.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket rate limiter using the generic cell rate algorithm: each key's whole bucket state is
+ * one "theoretical arrival time", updated with a CAS, so concurrent requests never take a lock.
+ * A key may send {@code burst} requests at once and then one per {@code 1/ratePerSecond}.
+ * Buckets idle for {@code idleTimeout} are evicted; an evicted bucket is simply full again.
+ */
+public class GcraRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Cache<Object, AtomicLong> buckets;
+
+    public GcraRateLimiter(double ratePerSecond, int burst, Duration idleTimeout, long maxBuckets) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate must be positive and burst at least 1");
+        }
+        this.emissionIntervalNanos = Math.max(1, Math.round(1_000_000_000d / ratePerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    /**
+     * Take one token for {@code key}.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until it would be
+     */
+    public long tryAcquire(Object key) {
+        long now = System.nanoTime();
+        AtomicLong arrival = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long tat = arrival.get();
+            // nanoTime values are only compared by difference
+            long next = (tat - now > 0 ? tat : now) + emissionIntervalNanos;
+            long excess = next - now - burstToleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (arrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    long bucketCount() {
+        return buckets.estimatedSize();
+    }
+}
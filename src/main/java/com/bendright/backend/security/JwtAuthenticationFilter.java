@@ -1,5 +1,6 @@
 package com.bendright.backend.security;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,26 +8,29 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
+    private static final List<GrantedAuthority> USER_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
     private final JwtService jwtService;
-    private final com.bendright.backend.repository.UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
-    public JwtAuthenticationFilter(JwtService jwtService,
-                                   com.bendright.backend.repository.UserRepository userRepository) {
+    public JwtAuthenticationFilter(JwtService jwtService, PrincipalCache principalCache) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -41,8 +45,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                // Now the token encodes userId (subject/uid) and uname. Use uid to load user from DB.
-                if (!jwtService.isTokenValid(jwt)) {
+                // Verify the token exactly once; the result is shared with controllers via a request attribute.
+                // Already verified when RateLimitFilter keyed the request by user id
+                VerifiedToken verified;
+                try {
+                    verified = request.getAttribute(JwtService.VERIFIED_TOKEN_ATTRIBUTE) instanceof VerifiedToken v
+                            ? v
+                            : jwtService.verify(jwt);
+                } catch (JwtException | IllegalArgumentException invalid) {
                     // Token present but invalid/expired -> return 401 immediately
                     logger.debug("JWT present but invalid or expired");
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -50,19 +60,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     response.getWriter().write("{\"error\":\"Invalid or expired token\"}");
                     return;
                 }
+                request.setAttribute(JwtService.VERIFIED_TOKEN_ATTRIBUTE, verified);
 
-                Long userId = jwtService.extractUserId(jwt);
+                Long userId = verified.userId();
                 if (userId != null) {
-                    var optUser = userRepository.findById(userId);
+                    // Usually served from memory; controllers read it back via @AuthenticationPrincipal
+                    var optUser = principalCache.get(userId);
                     if (optUser.isPresent()) {
-                        var user = optUser.get();
-                        UserDetails userDetails = org.springframework.security.core.userdetails.User
-                                .withUsername(user.getEmail())
-                                .password(user.getPassword())
-                                .authorities("ROLE_USER")
-                                .build();
                         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
+                                optUser.get(), null, USER_AUTHORITIES);
                         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         SecurityContextHolder.getContext().setAuthentication(authToken);
                     } else {
@@ -1,76 +1,201 @@
 package com.bendright.backend.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
-    @Value("${jwt.secret}")
-    private String secret;
 
-    @Value("${jwt.expiration-ms}")
-    private long expirationMs;
+    /** Request attribute holding the {@link VerifiedToken} resolved by {@link JwtAuthenticationFilter}. */
+    public static final String VERIFIED_TOKEN_ATTRIBUTE = "com.bendright.backend.security.VerifiedToken";
 
-    private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private final long expirationMs;
+    private final Key signingKey;
+    private final JwtParser parser;
+    // Tokens that already passed signature verification, evicted no later than their own expiry.
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final TokenRevocations revocations;
+    private final Counter cachedVerifications;
+    private final Timer validVerifications;
+    private final Timer expiredVerifications;
+    private final Timer badSignatureVerifications;
+    private final Timer malformedVerifications;
+    private final Counter revokedTokens;
+
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration-ms}") long expirationMs,
+                      @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize,
+                      TokenRevocations revocations,
+                      MeterRegistry meterRegistry) {
+        this.expirationMs = expirationMs;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+        this.revocations = revocations;
+        // Cache hits are only counted; timing them would cost about as much as the hit itself
+        this.cachedVerifications = Counter.builder("auth.token.verify.cached")
+                .description("Token verifications answered from the verified-token cache")
+                .register(meterRegistry);
+        this.validVerifications = verifyTimer(meterRegistry, "valid");
+        this.expiredVerifications = verifyTimer(meterRegistry, "expired");
+        this.badSignatureVerifications = verifyTimer(meterRegistry, "bad_signature");
+        this.malformedVerifications = verifyTimer(meterRegistry, "malformed");
+        this.revokedTokens = Counter.builder("auth.token.revoked")
+                .description("Tokens with a valid signature rejected because they were revoked")
+                .register(meterRegistry);
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.token.verify")
+                .description("Full token verifications (parse and signature check) by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     /**
-     * Generate a token that encodes userId and userName as claims.
+     * Generate a token that encodes userId and userName as claims, with a random id (jti) that
+     * {@link TokenRevocations} can revoke it by. {@code iat} has second resolution, so the issue time is
+     * also kept in milliseconds ({@code iat_ms}); "log out everywhere" compares against that.
      */
     public String generateToken(Long userId, String userName) {
         Date now = new Date();
         Date exp = new Date(now.getTime() + expirationMs);
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(String.valueOf(userId))
                 .claim("uname", userName)
                 .claim("uid", userId)
                 .setIssuedAt(now)
+                .claim("iat_ms", now.getTime())
                 .setExpiration(exp)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public Long extractUserId(String token) {
-        Claims claims = getClaims(token);
-        Object uid = claims.get("uid");
-        if (uid == null) return null;
+    /**
+     * Verify the token's signature and expiry once and return its claims.
+     * Recently verified tokens are served from memory without repeating the HMAC check; the revocation
+     * check runs every time.
+     *
+     * @throws JwtException if the token is malformed, badly signed, expired or revoked
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            cachedVerifications.increment();
+            return checkNotRevoked(cached);
+        }
+        long started = System.nanoTime();
+        Timer outcome = malformedVerifications;
         try {
-            return Long.parseLong(uid.toString());
-        } catch (Exception e) {
-            return null;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() == null) {
+                throw new MalformedJwtException("Token has no expiration");
+            }
+            VerifiedToken verified = new VerifiedToken(
+                    parseUserId(claims.get("uid")),
+                    claims.get("uname") == null ? null : claims.get("uname").toString(),
+                    claims.getId(),
+                    issuedAt(claims),
+                    claims.getExpiration().toInstant());
+            verifiedTokens.put(token, verified);
+            outcome = validVerifications;
+            return checkNotRevoked(verified);
+        } catch (ExpiredJwtException e) {
+            outcome = expiredVerifications;
+            throw e;
+        } catch (SignatureException e) {
+            outcome = badSignatureVerifications;
+            throw e;
+        } finally {
+            outcome.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private VerifiedToken checkNotRevoked(VerifiedToken verified) {
+        if (revocations.isRevoked(verified)) {
+            revokedTokens.increment();
+            throw new RevokedTokenException();
         }
+        return verified;
+    }
+
+    public Long extractUserId(String token) {
+        return verify(token).userId();
     }
 
     public String extractUserName(String token) {
-        Claims claims = getClaims(token);
-        Object uname = claims.get("uname");
-        return uname == null ? null : uname.toString();
+        return verify(token).userName();
     }
 
     public boolean isTokenValid(String token) {
         try {
-            Claims claims = getClaims(token);
-            return claims.getExpiration().after(new Date());
-        } catch (Exception e) {
+            verify(token);
+            return true;
+        } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Tokens issued before iat_ms existed fall back to iat, which is the whole second they were issued in
+    private static Instant issuedAt(Claims claims) {
+        if (claims.get("iat_ms") instanceof Number millis) {
+            return Instant.ofEpochMilli(millis.longValue());
+        }
+        return claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant();
+    }
+
+    private static Long parseUserId(Object uid) {
+        if (uid == null) return null;
+        try {
+            return Long.parseLong(uid.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+            long remainingMs = verified.expiresAt().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, verified, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,128 @@
+package com.bendright.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Small dedicated pool for password hashing, which is deliberately slow and CPU-bound, so bursts
+ * of logins and signups cannot tie up request threads. Admission is bounded: when the queue is
+ * full, or a task waited longer than {@code auth.hashing.max-queue-wait} before a thread picked
+ * it up, the caller gets {@link PasswordHashingUnavailableException} instead of waiting longer.
+ */
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+
+    private static final ThreadLocal<Boolean> ON_HASHING_THREAD = ThreadLocal.withInitial(() -> false);
+
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueWaitNanos;
+    private final Counter rejected;
+    private final Timer queueWait;
+
+    public PasswordHashingExecutor(MeterRegistry meterRegistry,
+                                   @Value("${auth.hashing.threads:0}") int threads,
+                                   @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${auth.hashing.max-queue-wait:2s}") Duration maxQueueWait) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        this.rejected = Counter.builder("auth.hashing.rejected")
+                .description("Logins and signups turned away because password hashing was saturated")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("auth.hashing.queue.wait")
+                .description("Time hashing tasks spent queued before a thread picked them up")
+                .register(meterRegistry);
+        new ExecutorServiceMetrics(executor, "password.hashing", List.of()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Queues the task on the hashing pool.
+     *
+     * @throws PasswordHashingUnavailableException if the queue is full; a task that waits too long
+     *         in the queue completes exceptionally with the same exception instead of running
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long waited = System.nanoTime() - enqueuedAt;
+                queueWait.record(waited, TimeUnit.NANOSECONDS);
+                // The client has most likely given up by now; don't spend a hash on it
+                if (waited > maxQueueWaitNanos) {
+                    rejected.increment();
+                    result.completeExceptionally(new PasswordHashingUnavailableException());
+                    return;
+                }
+                try {
+                    result.complete(task.get());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingUnavailableException();
+        }
+        return result;
+    }
+
+    /**
+     * Runs the task on the hashing pool and waits for it, or inline when the caller already is
+     * a hashing thread.
+     */
+    public <T> T call(Supplier<T> task) {
+        if (ON_HASHING_THREAD.get()) {
+            return task.get();
+        }
+        try {
+            return submit(task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(() -> {
+                ON_HASHING_THREAD.set(true);
+                r.run();
+            }, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.bendright.backend.security;
+
+/**
+ * Thrown when the password hashing pool is saturated and a login or signup is turned away
+ * instead of queueing behind it.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    public PasswordHashingUnavailableException() {
+        super("Password hashing capacity exceeded");
+    }
+}
@@ -0,0 +1,60 @@
+package com.bendright.backend.security;
+
+import com.bendright.backend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded, TTL-based cache of {@link AuthenticatedUser} principals keyed by user id, so that
+ * authenticated requests normally resolve their user without a database round trip.
+ * Any code path that changes a user must call {@link #evict(Long)}.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, AuthenticatedUser> principals;
+    private final Timer loads;
+
+    public PrincipalCache(UserRepository userRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${auth.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${auth.principal-cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size under cache=principals
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "principals");
+        this.loads = Timer.builder("auth.principal.load")
+                .description("Principal lookups that missed the cache and went to the database")
+                .register(meterRegistry);
+    }
+
+    public Optional<AuthenticatedUser> get(Long userId) {
+        AuthenticatedUser cached = principals.getIfPresent(userId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // Loaded outside the cache's compute lock: a query under that lock would pin a virtual thread.
+        // Unknown ids are not cached, so a user created later is picked up on the next request.
+        Optional<AuthenticatedUser> loaded = loads.record(
+                () -> userRepository.findById(userId).map(AuthenticatedUser::from));
+        loaded.ifPresent(principal -> principals.put(userId, principal));
+        return loaded;
+    }
+
+    public void evict(Long userId) {
+        principals.invalidate(userId);
+    }
+}
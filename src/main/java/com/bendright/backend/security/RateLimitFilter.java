@@ -0,0 +1,125 @@
+package com.bendright.backend.security;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client request rate limits, applied ahead of {@link JwtAuthenticationFilter} so a throttled
+ * request costs no database work. {@code /api/auth/**} is limited per remote address; other
+ * {@code /api} requests per user id when they carry a valid token (per address otherwise), with
+ * separate limits for reads and writes. Requests over the limit get 429 with {@code Retry-After}.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH_PREFIX = "/api/auth/";
+    private static final String API_PREFIX = "/api/";
+
+    private final JwtService jwtService;
+    private final boolean enabled;
+    private final Route auth;
+    private final Route read;
+    private final Route write;
+
+    public RateLimitFilter(JwtService jwtService,
+                           MeterRegistry meterRegistry,
+                           @Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.idle-timeout:10m}") Duration idleTimeout,
+                           @Value("${rate-limit.max-buckets:100000}") long maxBuckets,
+                           @Value("${rate-limit.auth.requests-per-second:2}") double authRate,
+                           @Value("${rate-limit.auth.burst:10}") int authBurst,
+                           @Value("${rate-limit.read.requests-per-second:50}") double readRate,
+                           @Value("${rate-limit.read.burst:100}") int readBurst,
+                           @Value("${rate-limit.write.requests-per-second:20}") double writeRate,
+                           @Value("${rate-limit.write.burst:50}") int writeBurst) {
+        this.jwtService = jwtService;
+        this.enabled = enabled;
+        this.auth = new Route("auth", new GcraRateLimiter(authRate, authBurst, idleTimeout, maxBuckets), meterRegistry);
+        this.read = new Route("read", new GcraRateLimiter(readRate, readBurst, idleTimeout, maxBuckets), meterRegistry);
+        this.write = new Route("write", new GcraRateLimiter(writeRate, writeBurst, idleTimeout, maxBuckets), meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || "OPTIONS".equals(request.getMethod())
+                || !request.getRequestURI().startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Route route;
+        Object key;
+        if (request.getRequestURI().startsWith(AUTH_PREFIX)) {
+            route = auth;
+            key = request.getRemoteAddr();
+        } else {
+            route = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()) ? read : write;
+            Long userId = verifiedUserId(request);
+            key = userId != null ? userId : request.getRemoteAddr();
+        }
+
+        long waitNanos = route.limiter.tryAcquire(key);
+        if (waitNanos > 0) {
+            route.throttled.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.setContentType("application/json");
+            response.getWriter().write("{\"success\":false,\"message\":\"Too many requests, please retry later\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Only a verified token may pick the bucket, otherwise a forged token could drain another user's.
+     * The result is left in the request for {@link JwtAuthenticationFilter}, which then skips verification.
+     */
+    private Long verifiedUserId(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            VerifiedToken verified = jwtService.verify(authHeader.substring(7));
+            request.setAttribute(JwtService.VERIFIED_TOKEN_ATTRIBUTE, verified);
+            return verified.userId();
+        } catch (JwtException | IllegalArgumentException e) {
+            // Rejected with 401 by JwtAuthenticationFilter if it gets that far
+            return null;
+        }
+    }
+
+    private static final class Route {
+        final GcraRateLimiter limiter;
+        final Counter throttled;
+
+        Route(String name, GcraRateLimiter limiter, MeterRegistry meterRegistry) {
+            this.limiter = limiter;
+            this.throttled = Counter.builder("http.server.requests.throttled")
+                    .description("Requests rejected with 429 by the rate limiter")
+                    .tag("route", name)
+                    .register(meterRegistry);
+            Gauge.builder("http.server.requests.throttle.buckets", limiter, GcraRateLimiter::bucketCount)
+                    .description("Rate limit buckets currently held in memory")
+                    .tag("route", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.bendright.backend.security;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * A correctly signed, unexpired token that was revoked by a logout; rejected like an invalid one.
+ */
+public class RevokedTokenException extends JwtException {
+
+    public RevokedTokenException() {
+        super("Token has been revoked");
+    }
+}
@@ -0,0 +1,181 @@
+package com.bendright.backend.security;
+
+import com.bendright.backend.model.TokenRevocation;
+import com.bendright.backend.repository.TokenRevocationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory denylist of revoked tokens, checked on every authenticated request without touching the
+ * database. Single tokens are kept by id (jti) in an exact set fronted by a {@link BloomFilter}, so the
+ * common case, a token that was never revoked, is answered by the filter alone. "Log out everywhere"
+ * is kept per user as the millisecond up to which tokens were issued, compared with the token's
+ * {@code iat_ms} claim, so a login right after the logout gets a working token. Tokens without that
+ * claim only carry the second they were issued in and are revoked with every logout in that second.
+ * <p>
+ * Revocations are stored in {@code token_revocations}: loaded at startup and polled every
+ * {@code auth.revocation.refresh-interval}, so logouts on other instances apply here within that
+ * interval. Entries leave memory and the table once every token they cover has expired.
+ */
+@Component
+public class TokenRevocations implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocations.class);
+
+    // Polls overlap by this much so rows committed late, or stamped by a lagging clock, are still seen
+    private static final Duration POLL_OVERLAP = Duration.ofMinutes(1);
+
+    private final TokenRevocationRepository repository;
+    private final long expirationMs;
+    private final Duration refreshInterval;
+    private final int bloomBits;
+    private final int bloomHashes;
+    // Token id -> expiry (epoch second) of that token
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // User id -> tokens issued up to this millisecond are revoked, and until when the entry matters
+    private final Map<Long, IssuedUpTo> revokedUsers = new ConcurrentHashMap<>();
+    // Serializes writers, so a filter rebuilt on pruning never loses a concurrently added id
+    private final Object writeLock = new Object();
+    private volatile BloomFilter bloom;
+    private Instant lastPoll;
+    private ScheduledExecutorService scheduler;
+
+    public TokenRevocations(TokenRevocationRepository repository,
+                            MeterRegistry meterRegistry,
+                            @Value("${jwt.expiration-ms}") long expirationMs,
+                            @Value("${auth.revocation.refresh-interval:10s}") Duration refreshInterval,
+                            @Value("${auth.revocation.bloom-bits:1048576}") int bloomBits,
+                            @Value("${auth.revocation.bloom-hashes:4}") int bloomHashes) {
+        this.repository = repository;
+        this.expirationMs = expirationMs;
+        this.refreshInterval = refreshInterval;
+        this.bloomBits = bloomBits;
+        this.bloomHashes = bloomHashes;
+        this.bloom = new BloomFilter(bloomBits, bloomHashes);
+        Gauge.builder("auth.revocations.active", this, r -> r.revokedTokens.size() + r.revokedUsers.size())
+                .description("Revoked tokens and per-user logouts held in memory")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        if (!revokedUsers.isEmpty() && token.userId() != null) {
+            IssuedUpTo revoked = revokedUsers.get(token.userId());
+            if (revoked != null
+                    && (token.issuedAt() == null || token.issuedAt().toEpochMilli() <= revoked.epochMilli())) {
+                return true;
+            }
+        }
+        String id = token.id();
+        return id != null && bloom.mightContain(id) && revokedTokens.containsKey(id);
+    }
+
+    /**
+     * Revokes one token, here at once and on other instances within the refresh interval.
+     */
+    public void revoke(VerifiedToken token) {
+        apply(repository.save(new TokenRevocation(token.userId(), token.id(), Instant.now(), token.expiresAt())));
+    }
+
+    /**
+     * Revokes every token of the user issued so far.
+     */
+    public void revokeAll(Long userId) {
+        Instant now = Instant.now();
+        apply(repository.save(new TokenRevocation(userId, null, now, now.plusMillis(expirationMs))));
+    }
+
+    private void apply(TokenRevocation revocation) {
+        synchronized (writeLock) {
+            if (revocation.getTokenId() != null) {
+                revokedTokens.put(revocation.getTokenId(), revocation.getExpiresAt().getEpochSecond());
+                bloom.add(revocation.getTokenId());
+            } else {
+                revokedUsers.merge(revocation.getUserId(),
+                        new IssuedUpTo(revocation.getRevokedAt().toEpochMilli(),
+                                revocation.getExpiresAt().getEpochSecond()),
+                        (a, b) -> a.epochMilli() >= b.epochMilli() ? a : b);
+            }
+        }
+    }
+
+    /**
+     * Applies revocations stored since the last poll (all of them on the first) and drops expired ones.
+     */
+    void refresh() {
+        Instant now = Instant.now();
+        Instant since = lastPoll == null ? Instant.EPOCH : lastPoll.minus(refreshInterval).minus(POLL_OVERLAP);
+        for (TokenRevocation revocation : repository.findActiveRevokedSince(since, now)) {
+            apply(revocation);
+        }
+        lastPoll = now;
+        prune(now.getEpochSecond());
+        repository.deleteExpired(now);
+    }
+
+    private void prune(long nowEpochSecond) {
+        synchronized (writeLock) {
+            revokedUsers.values().removeIf(revoked -> revoked.expiresEpochSecond() <= nowEpochSecond);
+            if (revokedTokens.values().removeIf(expires -> expires <= nowEpochSecond)) {
+                BloomFilter rebuilt = new BloomFilter(bloomBits, bloomHashes);
+                revokedTokens.keySet().forEach(rebuilt::add);
+                bloom = rebuilt;
+            }
+        }
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh token revocations, will retry in {}: {}", refreshInterval, e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        // Synchronously, so no revoked token is accepted once the server takes requests
+        refresh();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "token-revocations");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Loaded {} revoked tokens and {} user logouts", revokedTokens.size(), revokedUsers.size());
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // Before the web server starts taking requests
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private record IssuedUpTo(long epochMilli, long expiresEpochSecond) {}
+}
@@ -0,0 +1,79 @@
+package com.bendright.backend.security;
+
+import com.bendright.backend.model.User;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link UserDetails} loaded for password authentication. Carries the user's id and name so that
+ * a successful login can issue its token without loading the user a second time.
+ */
+public class UserAccount implements UserDetails, CredentialsContainer {
+
+    private static final List<GrantedAuthority> USER_AUTHORITIES = AuthorityUtils.createAuthorityList("ROLE_USER");
+
+    private final Long id;
+    private final String email;
+    private final String userName;
+    private String password;
+
+    public UserAccount(Long id, String email, String userName, String password) {
+        this.id = id;
+        this.email = email;
+        this.userName = userName;
+        this.password = password;
+    }
+
+    public static UserAccount from(User user) {
+        return new UserAccount(user.getId(), user.getEmail(), user.getUserName(), user.getPassword());
+    }
+
+    public UserAccount withPassword(String newPassword) {
+        return new UserAccount(id, email, userName, newPassword);
+    }
+
+    public Long getId() { return id; }
+    public String getEmail() { return email; }
+    public String getUserName() { return userName; }
+
+    public AuthenticatedUser toPrincipal() {
+        return new AuthenticatedUser(id, email, userName);
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return USER_AUTHORITIES;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() { return true; }
+
+    @Override
+    public boolean isAccountNonLocked() { return true; }
+
+    @Override
+    public boolean isCredentialsNonExpired() { return true; }
+
+    @Override
+    public boolean isEnabled() { return true; }
+}
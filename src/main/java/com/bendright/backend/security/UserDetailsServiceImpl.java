@@ -3,12 +3,14 @@ package com.bendright.backend.security;
 import com.bendright.backend.model.User;
 import com.bendright.backend.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -18,12 +20,21 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByEmailIgnoreCase(username)
+        User user = userRepository.findByEmail(User.normalizeEmail(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password(user.getPassword())
-                .authorities("ROLE_USER")
-                .build();
+        return UserAccount.from(user);
+    }
+
+    /**
+     * Stores a password re-hashed on login with the current algorithm and cost.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails details, String newPassword) {
+        UserAccount account = (UserAccount) details;
+        User user = userRepository.findById(account.getId())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + account.getUsername()));
+        user.setPassword(newPassword);
+        return account.withPassword(newPassword);
     }
 }
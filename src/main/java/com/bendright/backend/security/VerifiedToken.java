@@ -0,0 +1,15 @@
+package com.bendright.backend.security;
+
+import java.time.Instant;
+
+/**
+ * Immutable view of a JWT whose signature and expiry have already been checked by {@link JwtService}.
+ * The filter stores it as a request attribute so controllers never parse the token again.
+ * {@code id} is the token's jti; null for tokens issued before ids were added.
+ */
+public record VerifiedToken(Long userId, String userName, String id, Instant issuedAt, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,278 @@
+package com.bendright.backend.service;
+
+import com.bendright.backend.model.Asana;
+import com.bendright.backend.model.AsanaDefinition;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import com.bendright.backend.security.GcraRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory copy of the asana catalog. Readers see an immutable snapshot through one volatile read;
+ * new entries and reloads publish a new snapshot with a CAS, so lookups never lock.
+ * <p>
+ * Names match without surrounding spaces and case-insensitively, without allocating, when the asana is
+ * already known. Only spaces are trimmed, as by PostgreSQL's {@code trim()} in the V7 backfill; the
+ * in-memory keys are always derived from the names by {@link #normalize}, so rows backfilled by V7 match
+ * by the same rule as names added at runtime.
+ * Unknown names are added to the catalog in their own short transaction on a private EntityManager,
+ * so a rollback of the caller cannot leave an id in memory that the database never committed, and
+ * the caller's EntityManager never holds a connection on its behalf. Each user may add
+ * {@code asanas.catalog.new-names.per-user-burst} names at once and then
+ * {@code asanas.catalog.new-names.per-user-per-hour}, so no single client can fill the catalog for everyone.
+ */
+@Component
+public class AsanaCatalog {
+
+    static final int MAX_NAME_LENGTH = 255;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxSize;
+    private final GcraRateLimiter newNames;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    public AsanaCatalog(EntityManagerFactory entityManagerFactory,
+                        JdbcTemplate jdbcTemplate,
+                        @Value("${asanas.catalog.max-size:5000}") int maxSize,
+                        @Value("${asanas.catalog.new-names.per-user-per-hour:20}") double newNamesPerHour,
+                        @Value("${asanas.catalog.new-names.per-user-burst:50}") int newNamesBurst) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxSize = maxSize;
+        // A bucket idle for longer than it takes to refill is full again, so evicting it loses nothing
+        Duration refill = Duration.ofSeconds((long) Math.ceil(newNamesBurst * 3600 / newNamesPerHour));
+        this.newNames = new GcraRateLimiter(newNamesPerHour / 3600, newNamesBurst, refill, 100_000);
+        reload();
+    }
+
+    /**
+     * The catalog entry for {@code name}, adding it on behalf of {@code userId} when no spelling of it
+     * is known yet. Call it only for otherwise valid requests, so rejected ones add nothing.
+     *
+     * @throws InvalidSessionException if the name is blank or too long, the user added too many names
+     *         recently, or the catalog is full
+     */
+    public Asana resolve(String name, Long userId) {
+        if (name != null) {
+            Asana known = snapshot.get().find(name);
+            if (known != null) {
+                return known;
+            }
+        }
+        String trimmed = name == null ? "" : trimSpaces(name);
+        if (trimmed.isEmpty() || trimmed.length() > MAX_NAME_LENGTH) {
+            throw new InvalidSessionException("asana must be 1 to " + MAX_NAME_LENGTH + " characters");
+        }
+        return register(trimmed, normalize(trimmed), userId);
+    }
+
+    /**
+     * The entry with this id. An id added by another instance is read on the caller's transaction-bound
+     * connection, since this runs while rows referencing it are hydrated: a second connection per
+     * request could exhaust the pool, and the row is on the replica that returned the referencing row.
+     */
+    public Asana byId(short id) {
+        Asana asana = snapshot.get().byId(id);
+        if (asana == null) {
+            List<Entry> loaded = jdbcTemplate.query("select id, name from asanas where id = ?",
+                    (rs, i) -> entry(rs.getShort(1), rs.getString(2)), id);
+            if (loaded.isEmpty()) {
+                throw new IllegalStateException("Unknown asana id " + id);
+            }
+            asana = snapshot.updateAndGet(current -> current.with(loaded)).byId(id);
+        }
+        return asana;
+    }
+
+    public int size() {
+        return snapshot.get().size();
+    }
+
+    /**
+     * Re-reads the catalog table. Entries added concurrently are kept.
+     */
+    public void reload() {
+        // May run while the caller's EntityManager is still reading rows that need an entry
+        List<Entry> loaded = new ArrayList<>();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (AsanaDefinition d : entityManager
+                    .createQuery("select a from AsanaDefinition a", AsanaDefinition.class).getResultList()) {
+                loaded.add(entry(d.getId(), d.getName()));
+            }
+        } finally {
+            entityManager.close();
+        }
+        snapshot.updateAndGet(current -> current.with(loaded));
+    }
+
+    private Asana register(String name, String normalized, Long userId) {
+        if (size() >= maxSize) {
+            throw new InvalidSessionException("The asana catalog is full");
+        }
+        AsanaDefinition stored;
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            // Look first: a conflicting insert would still consume an id
+            stored = findByNormalizedName(entityManager, normalized);
+            if (stored == null) {
+                if (newNames.tryAcquire(userId) > 0) {
+                    throw new InvalidSessionException("Too many new asana names, please retry later");
+                }
+                entityManager.createNativeQuery("insert into asanas (name, normalized_name) values (:name, :normalizedName)"
+                                + " on conflict (normalized_name) do nothing")
+                        .setParameter("name", name)
+                        .setParameter("normalizedName", normalized)
+                        .executeUpdate();
+                stored = findByNormalizedName(entityManager, normalized);
+            }
+            entityManager.getTransaction().commit();
+        } finally {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.close();
+        }
+        Entry entry = entry(stored.getId(), stored.getName());
+        return snapshot.updateAndGet(current -> current.with(List.of(entry))).byId(entry.asana().id());
+    }
+
+    private static AsanaDefinition findByNormalizedName(EntityManager entityManager, String normalized) {
+        return entityManager.createQuery("select a from AsanaDefinition a where a.normalizedName = :normalized",
+                        AsanaDefinition.class)
+                .setParameter("normalized", normalized)
+                .getResultStream().findFirst().orElse(null);
+    }
+
+    private static Entry entry(short id, String name) {
+        return new Entry(new Asana(id, name), normalize(name));
+    }
+
+    /**
+     * The catalog key for a name: surrounding spaces removed, lower-cased character by character as in
+     * {@link Snapshot#find}.
+     */
+    static String normalize(String name) {
+        String trimmed = trimSpaces(name);
+        StringBuilder key = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            key.append(Character.toLowerCase(trimmed.charAt(i)));
+        }
+        return key.toString();
+    }
+
+    // Same as PostgreSQL's trim(): spaces only, unlike String.trim()
+    private static String trimSpaces(String name) {
+        int start = 0;
+        int end = name.length();
+        while (start < end && name.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && name.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return name.substring(start, end);
+    }
+
+    record Entry(Asana asana, String key) {}
+
+    /**
+     * Immutable lookup tables: entries by id, and an open-addressing hash table over normalized names
+     * that is probed directly with the raw input, so a lookup neither trims nor lower-cases a copy.
+     */
+    static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(List.of());
+
+        private final List<Entry> entries;
+        private final Asana[] byId;
+        private final Entry[] table;
+        private final int mask;
+
+        Snapshot(List<Entry> entries) {
+            this.entries = entries;
+            int maxId = 0;
+            for (Entry e : entries) {
+                maxId = Math.max(maxId, e.asana().id());
+            }
+            this.byId = new Asana[maxId + 1];
+            this.table = new Entry[Math.max(16, Integer.highestOneBit(Math.max(1, entries.size()) * 2) * 2)];
+            this.mask = table.length - 1;
+            for (Entry e : entries) {
+                byId[e.asana().id()] = e.asana();
+                int i = hash(e.key(), 0, e.key().length()) & mask;
+                while (table[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = e;
+            }
+        }
+
+        Snapshot with(List<Entry> added) {
+            List<Entry> merged = null;
+            for (Entry e : added) {
+                if (byId(e.asana().id()) == null) {
+                    if (merged == null) {
+                        merged = new ArrayList<>(entries);
+                    }
+                    merged.add(e);
+                }
+            }
+            return merged == null ? this : new Snapshot(List.copyOf(merged));
+        }
+
+        Asana byId(short id) {
+            return id >= 0 && id < byId.length ? byId[id] : null;
+        }
+
+        int size() {
+            return entries.size();
+        }
+
+        Asana find(String name) {
+            int start = 0;
+            int end = name.length();
+            // Same bounds as trimSpaces
+            while (start < end && name.charAt(start) == ' ') {
+                start++;
+            }
+            while (end > start && name.charAt(end - 1) == ' ') {
+                end--;
+            }
+            for (int i = hash(name, start, end) & mask; table[i] != null; i = (i + 1) & mask) {
+                if (matches(table[i].key(), name, start, end)) {
+                    return table[i].asana();
+                }
+            }
+            return null;
+        }
+
+        private static int hash(String s, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + Character.toLowerCase(s.charAt(i));
+            }
+            return h ^ (h >>> 16);
+        }
+
+        private static boolean matches(String key, String name, int start, int end) {
+            if (key.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                if (key.charAt(i) != Character.toLowerCase(name.charAt(start + i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
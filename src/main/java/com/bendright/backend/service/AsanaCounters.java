@@ -0,0 +1,48 @@
+package com.bendright.backend.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Session counts per asana and day that have not been flushed yet. Increments go to striped
+ * {@link LongAdder}s, so concurrent writers for the same asana do not contend on one memory word;
+ * {@link #drain} hands out and resets the counts without losing increments that race with it.
+ */
+public class AsanaCounters {
+
+    @FunctionalInterface
+    public interface Sink {
+        void accept(long epochDay, short asanaId, long count);
+    }
+
+    // Key: epoch day in the high bits, asana id in the low 16
+    private final Map<Long, LongAdder> counts = new ConcurrentHashMap<>();
+
+    public void add(long epochDay, short asanaId, long count) {
+        long key = epochDay << 16 | (asanaId & 0xFFFF);
+        LongAdder adder = counts.get(key);
+        if (adder == null) {
+            adder = counts.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.add(count);
+    }
+
+    public void increment(long epochDay, short asanaId) {
+        add(epochDay, asanaId, 1);
+    }
+
+    /**
+     * Passes every non-zero count to {@code sink} and resets it. Counters of days before
+     * {@code firstEpochDay} are dropped.
+     */
+    public void drain(long firstEpochDay, Sink sink) {
+        counts.keySet().removeIf(key -> key >> 16 < firstEpochDay);
+        counts.forEach((key, adder) -> {
+            long count = adder.sumThenReset();
+            if (count != 0) {
+                sink.accept(key >> 16, (short) key.longValue(), count);
+            }
+        });
+    }
+}
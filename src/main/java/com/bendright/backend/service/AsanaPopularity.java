@@ -0,0 +1,231 @@
+package com.bendright.backend.service;
+
+import com.bendright.backend.dto.AsanaPopularityResponse;
+import com.bendright.backend.dto.AsanaPopularityResponse.AsanaTotal;
+import com.bendright.backend.dto.SessionView;
+import com.bendright.backend.model.Asana;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Most practiced asanas across all users, today and over the last seven days (by session date).
+ * Stored sessions are counted in memory ({@link AsanaCounters}) once their transaction commits. Every
+ * {@code asanas.popularity.refresh-interval} the counts are added to {@code asana_daily_counts}, the
+ * window's totals of all instances are read back, and a new immutable top-K snapshot replaces the old
+ * one. Requests only read the snapshot; a restarted instance has one as soon as it starts.
+ */
+@Component
+public class AsanaPopularity implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsanaPopularity.class);
+
+    private static final int WINDOW_DAYS = 7;
+
+    private static final Comparator<AsanaTotal> MOST_SESSIONS =
+            Comparator.comparingLong(AsanaTotal::sessions).reversed().thenComparing(AsanaTotal::asana);
+
+    private final AsanaCatalog asanaCatalog;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Duration refreshInterval;
+    private final int topK;
+    private final AsanaCounters pending = new AsanaCounters();
+    private volatile AsanaPopularityResponse snapshot;
+    private ScheduledExecutorService scheduler;
+
+    public AsanaPopularity(AsanaCatalog asanaCatalog,
+                           TransactionTemplate transactionTemplate,
+                           EntityManager entityManager,
+                           @Value("${asanas.popularity.refresh-interval:10s}") Duration refreshInterval,
+                           @Value("${asanas.popularity.top-k:10}") int topK) {
+        this.asanaCatalog = asanaCatalog;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.refreshInterval = refreshInterval;
+        this.topK = topK;
+        this.snapshot = new AsanaPopularityResponse(LocalDate.now(), Instant.now(), List.of(), List.of());
+    }
+
+    public AsanaPopularityResponse snapshot() {
+        return snapshot;
+    }
+
+    public Duration refreshInterval() {
+        return refreshInterval;
+    }
+
+    /**
+     * Counts sessions dated within the window once the current transaction commits.
+     */
+    public void recordAfterCommit(Collection<SessionView> stored) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(stored);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(stored);
+            }
+        });
+    }
+
+    private void record(Collection<SessionView> stored) {
+        long today = LocalDate.now().toEpochDay();
+        for (SessionView s : stored) {
+            long day = s.date().toEpochDay();
+            if (day <= today && day > today - WINDOW_DAYS) {
+                pending.increment(day, s.asana().id());
+            }
+        }
+    }
+
+    /**
+     * Flushes the counted sessions and rebuilds the snapshot from the stored totals.
+     */
+    void refresh() {
+        LocalDate today = LocalDate.now();
+        LocalDate first = today.minusDays(WINDOW_DAYS - 1);
+        StringJoiner days = new StringJoiner(",", "{", "}");
+        StringJoiner asanaIds = new StringJoiner(",", "{", "}");
+        StringJoiner counts = new StringJoiner(",", "{", "}");
+        List<long[]> drained = new ArrayList<>();
+        pending.drain(first.toEpochDay(), (day, asanaId, count) -> {
+            days.add(LocalDate.ofEpochDay(day).toString());
+            asanaIds.add(Short.toString(asanaId));
+            counts.add(Long.toString(count));
+            drained.add(new long[] {day, asanaId, count});
+        });
+
+        List<Object[]> rows;
+        try {
+            rows = transactionTemplate.execute(tx -> {
+                if (!drained.isEmpty()) {
+                    // One statement for all counts; the arrays are passed as PostgreSQL array literals
+                    entityManager.createNativeQuery("insert into asana_daily_counts (day, asana_id, sessions)"
+                                    + " select * from unnest(cast(:days as date[]), cast(:asanaIds as smallint[]),"
+                                    + " cast(:counts as bigint[]))"
+                                    + " on conflict (day, asana_id) do update"
+                                    + " set sessions = asana_daily_counts.sessions + excluded.sessions")
+                            .setParameter("days", days.toString())
+                            .setParameter("asanaIds", asanaIds.toString())
+                            .setParameter("counts", counts.toString())
+                            .executeUpdate();
+                }
+                entityManager.createNativeQuery("delete from asana_daily_counts where day < :first")
+                        .setParameter("first", first)
+                        .executeUpdate();
+                @SuppressWarnings("unchecked")
+                List<Object[]> totals = entityManager.createNativeQuery(
+                                "select day, asana_id, sessions from asana_daily_counts where day between :first and :today")
+                        .setParameter("first", first)
+                        .setParameter("today", today)
+                        .getResultList();
+                return totals;
+            });
+        } catch (RuntimeException e) {
+            // Counted again with the next flush
+            drained.forEach(d -> pending.add(d[0], (short) d[1], d[2]));
+            throw e;
+        }
+
+        Map<Short, long[]> byAsana = new HashMap<>();
+        for (Object[] row : rows) {
+            long[] n = byAsana.computeIfAbsent(((Number) row[1]).shortValue(), id -> new long[2]);
+            long sessions = ((Number) row[2]).longValue();
+            n[1] += sessions;
+            if (((Date) row[0]).toLocalDate().equals(today)) {
+                n[0] += sessions;
+            }
+        }
+        snapshot = new AsanaPopularityResponse(today, Instant.now(), top(byAsana, 0), top(byAsana, 1));
+    }
+
+    private List<AsanaTotal> top(Map<Short, long[]> byAsana, int column) {
+        // Smallest of the current top K at the head
+        PriorityQueue<AsanaTotal> best = new PriorityQueue<>(topK + 1, MOST_SESSIONS.reversed());
+        byAsana.forEach((asanaId, n) -> {
+            Asana asana = asanaCatalog.byId(asanaId);
+            if (n[column] > 0 && asana != null) {
+                best.add(new AsanaTotal(asana.name(), n[column]));
+                if (best.size() > topK) {
+                    best.poll();
+                }
+            }
+        });
+        List<AsanaTotal> sorted = new ArrayList<>(best);
+        sorted.sort(MOST_SESSIONS);
+        return List.copyOf(sorted);
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh asana popularity, will retry in {}: {}", refreshInterval, e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        // Before the server takes requests, so a restarted instance serves the stored totals at once
+        refreshSafely();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "asana-popularity");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        // Keep the counts of sessions stored since the last refresh
+        refreshSafely();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the write-behind queue (DEFAULT_PHASE - 4096) is drained, so its sessions are flushed too
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+}
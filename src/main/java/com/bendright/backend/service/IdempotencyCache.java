@@ -0,0 +1,58 @@
+package com.bendright.backend.service;
+
+import com.bendright.backend.dto.SessionView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Short-lived memory of recently stored idempotency keys, so client retries are answered
+ * without touching the database. The primary key {@code (user_id, client_key)} of
+ * {@code session_client_keys} remains the source of truth; this only short-circuits repeats
+ * seen by this instance.
+ */
+@Component
+public class IdempotencyCache {
+
+    public record Key(Long userId, String clientKey) {}
+
+    private final Cache<Key, SessionView> recent;
+
+    public IdempotencyCache(@Value("${sessions.idempotency.window:10m}") Duration window,
+                            @Value("${sessions.idempotency.max-size:100000}") long maxSize) {
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public SessionView get(Long userId, String clientKey) {
+        return recent.getIfPresent(new Key(userId, clientKey));
+    }
+
+    /**
+     * Remembers the stored sessions once the surrounding transaction commits, so a rolled-back
+     * write is never reported to a retry as stored.
+     */
+    public void rememberAfterCommit(Map<Key, SessionView> stored) {
+        if (stored.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recent.putAll(stored);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recent.putAll(stored);
+            }
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package com.bendright.backend.service;
+
+/**
+ * Thrown when a session in a request is invalid: bad status, date, asana name or client key.
+ * The message is meant for the client.
+ */
+public class InvalidSessionException extends RuntimeException {
+
+    public InvalidSessionException(String message) {
+        super(message);
+    }
+}
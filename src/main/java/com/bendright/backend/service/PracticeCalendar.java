@@ -0,0 +1,157 @@
+package com.bendright.backend.service;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Base64;
+
+/**
+ * One user's practice days of one calendar year as two immutable bitmaps: bit {@code n} is day-of-year
+ * {@code n + 1}, set in {@code practiced} if any session is dated that day and in {@code completed} if a
+ * completed one is. Each bitmap is six words (366 bits and padding); runs of days are found with
+ * leading/trailing-zero counts over whole words rather than day by day.
+ */
+public final class PracticeCalendar {
+
+    private static final int WORDS = 6;
+    // 366 bits, least significant bit of each byte first
+    private static final int BYTES = 46;
+
+    private final int year;
+    private final long[] practiced;
+    private final long[] completed;
+
+    private PracticeCalendar(int year, long[] practiced, long[] completed) {
+        this.year = year;
+        this.practiced = practiced;
+        this.completed = completed;
+    }
+
+    public static PracticeCalendar empty(int year) {
+        return new PracticeCalendar(year, new long[WORDS], new long[WORDS]);
+    }
+
+    public int year() {
+        return year;
+    }
+
+    public int length() {
+        return Year.of(year).length();
+    }
+
+    /**
+     * This calendar with {@code day} marked as practiced, and as completed if {@code completed} is set.
+     */
+    public PracticeCalendar with(LocalDate day, boolean completed) {
+        int bit = day.getDayOfYear() - 1;
+        long mask = 1L << bit;
+        int word = bit >>> 6;
+        boolean done = (practiced[word] & mask) != 0 && (!completed || (this.completed[word] & mask) != 0);
+        if (done) {
+            return this;
+        }
+        long[] p = practiced.clone();
+        long[] c = this.completed.clone();
+        p[word] |= mask;
+        if (completed) {
+            c[word] |= mask;
+        }
+        return new PracticeCalendar(year, p, c);
+    }
+
+    /**
+     * Days practiced or completed in either calendar of the same year.
+     */
+    public PracticeCalendar or(PracticeCalendar other) {
+        long[] p = new long[WORDS];
+        long[] c = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            p[i] = practiced[i] | other.practiced[i];
+            c[i] = completed[i] | other.completed[i];
+        }
+        return new PracticeCalendar(year, p, c);
+    }
+
+    public boolean practiced(int dayOfYear) {
+        int bit = dayOfYear - 1;
+        return (practiced[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public int practicedDays() {
+        return bitCount(practiced);
+    }
+
+    public int completedDays() {
+        return bitCount(completed);
+    }
+
+    /**
+     * Number of consecutive practiced days ending on {@code dayOfYear}, counting back no further than
+     * January 1st; 0 if that day was not practiced.
+     */
+    public int runEndingAt(int dayOfYear) {
+        int bit = dayOfYear - 1;
+        int word = bit >>> 6;
+        // The day's bit moved to the top: leading ones are the run within this word
+        int run = Long.numberOfLeadingZeros(~(practiced[word] << (63 - (bit & 63))));
+        if (run <= (bit & 63)) {
+            return run;
+        }
+        for (word--; word >= 0; word--) {
+            if (practiced[word] != -1L) {
+                return run + Long.numberOfLeadingZeros(~practiced[word]);
+            }
+            run += 64;
+        }
+        return run;
+    }
+
+    /**
+     * Length of the longest run of consecutive practiced days within the year.
+     */
+    public int longestRun() {
+        int longest = 0;
+        // Run of set bits reaching the top of the previous word
+        int carried = 0;
+        for (long word : practiced) {
+            if (word == -1L) {
+                carried += 64;
+                continue;
+            }
+            int low = Long.numberOfTrailingZeros(~word);
+            longest = Math.max(longest, carried + low);
+            long rest = word >>> low;
+            while (rest != 0) {
+                rest >>>= Long.numberOfTrailingZeros(rest);
+                int ones = Long.numberOfTrailingZeros(~rest);
+                longest = Math.max(longest, ones);
+                rest >>>= ones;
+            }
+            carried = Long.numberOfLeadingZeros(~word);
+        }
+        return Math.max(longest, carried);
+    }
+
+    public String practicedBase64() {
+        return Base64.getEncoder().encodeToString(toBytes(practiced));
+    }
+
+    public String completedBase64() {
+        return Base64.getEncoder().encodeToString(toBytes(completed));
+    }
+
+    private static byte[] toBytes(long[] words) {
+        byte[] bytes = new byte[BYTES];
+        for (int i = 0; i < BYTES; i++) {
+            bytes[i] = (byte) (words[i >>> 3] >>> ((i & 7) << 3));
+        }
+        return bytes;
+    }
+
+    private static int bitCount(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
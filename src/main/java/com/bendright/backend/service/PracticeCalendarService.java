@@ -0,0 +1,156 @@
+package com.bendright.backend.service;
+
+import com.bendright.backend.dto.PracticeCalendarResponse;
+import com.bendright.backend.dto.SessionView;
+import com.bendright.backend.model.DailyPractice;
+import com.bendright.backend.model.SessionStatus;
+import com.bendright.backend.repository.DailyPracticeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user, per-year practice calendars ({@link PracticeCalendar}) for heatmaps and streaks. A calendar is
+ * built once from the user's daily aggregates (at most 366 rows), then cached and kept current by setting
+ * bits as this instance stores sessions. Sessions stored by other instances show up once the entry expires
+ * ({@code stats.calendar.cache.ttl}).
+ */
+@Service
+public class PracticeCalendarService {
+
+    private static final int STAMPS = 1024;
+
+    private final DailyPracticeRepository dailyRepository;
+    private final Cache<Key, PracticeCalendar> calendars;
+    // Bumped per user (striped) after each commit, so a load that raced with a write is not kept stale
+    private final AtomicLongArray writeStamps = new AtomicLongArray(STAMPS);
+
+    public PracticeCalendarService(DailyPracticeRepository dailyRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${stats.calendar.cache.max-size:10000}") long maxSize,
+                                   @Value("${stats.calendar.cache.ttl:1m}") Duration ttl) {
+        this.dailyRepository = dailyRepository;
+        this.calendars = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(expireAfterLoad(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, calendars, "calendars");
+    }
+
+    @Transactional(readOnly = true)
+    public PracticeCalendarResponse getCalendar(Long userId, int year) {
+        PracticeCalendar calendar = calendar(userId, year);
+        return new PracticeCalendarResponse(year, calendar.length(),
+                calendar.practicedBase64(), calendar.completedBase64(),
+                calendar.practicedDays(), calendar.completedDays(),
+                currentStreak(userId), calendar.longestRun());
+    }
+
+    /**
+     * Consecutive practice days up to today, or up to yesterday if today has no session yet.
+     */
+    int currentStreak(Long userId) {
+        LocalDate today = LocalDate.now();
+        LocalDate end = calendar(userId, today.getYear()).practiced(today.getDayOfYear()) ? today : today.minusDays(1);
+        PracticeCalendar calendar = calendar(userId, end.getYear());
+        int dayOfYear = end.getDayOfYear();
+        int streak = 0;
+        while (calendar.practiced(dayOfYear)) {
+            int run = calendar.runEndingAt(dayOfYear);
+            streak += run;
+            if (run < dayOfYear) {
+                break;
+            }
+            // The run reaches January 1st and may continue on December 31st of the year before
+            calendar = calendar(userId, calendar.year() - 1);
+            dayOfYear = calendar.length();
+        }
+        return streak;
+    }
+
+    private PracticeCalendar calendar(Long userId, int year) {
+        Key key = new Key(userId, year);
+        PracticeCalendar cached = calendars.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        // Loaded outside the cache's compute lock, like the principal cache
+        int stripe = stripe(userId);
+        long stamp = writeStamps.get(stripe);
+        PracticeCalendar loaded = PracticeCalendar.empty(year);
+        for (DailyPractice d : dailyRepository.findByUserIdAndDayBetween(
+                userId, LocalDate.ofYearDay(year, 1), LocalDate.of(year, 12, 31))) {
+            loaded = loaded.with(d.getDay(), d.getCompleted() > 0);
+        }
+        PracticeCalendar merged = calendars.asMap().merge(key, loaded, PracticeCalendar::or);
+        if (writeStamps.get(stripe) != stamp) {
+            // A commit may have set its bits before this entry existed; the next request loads again
+            calendars.invalidate(key);
+        }
+        return merged;
+    }
+
+    /**
+     * Marks the days of newly stored sessions in cached calendars once the current transaction commits.
+     */
+    public void recordAfterCommit(Long userId, Collection<SessionView> stored) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(userId, stored);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(userId, stored);
+            }
+        });
+    }
+
+    private void record(Long userId, Collection<SessionView> stored) {
+        writeStamps.incrementAndGet(stripe(userId));
+        for (SessionView s : stored) {
+            calendars.asMap().computeIfPresent(new Key(userId, s.date().getYear()),
+                    (key, calendar) -> calendar.with(s.date(), s.status() == SessionStatus.COMPLETED));
+        }
+    }
+
+    // Counted from the load: local updates must not keep other instances' writes out indefinitely
+    private static Expiry<Key, PracticeCalendar> expireAfterLoad(Duration ttl) {
+        long ttlNanos = ttl.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Key key, PracticeCalendar calendar, long currentTime) {
+                return ttlNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(Key key, PracticeCalendar calendar, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+
+            @Override
+            public long expireAfterRead(Key key, PracticeCalendar calendar, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (STAMPS - 1);
+    }
+
+    private record Key(Long userId, int year) {}
+}
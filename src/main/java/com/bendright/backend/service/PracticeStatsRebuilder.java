@@ -0,0 +1,104 @@
+package com.bendright.backend.service;
+
+import com.bendright.backend.repository.AsanaPracticeRepository;
+import com.bendright.backend.repository.DailyPracticeRepository;
+import com.bendright.backend.repository.PracticeStatsRepository;
+import com.bendright.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Recomputes all practice aggregates from the stored sessions, archived ones included, for backfill and repair.
+ * Users are split into id ranges that are rebuilt in parallel, each range in its own transaction
+ * holding the stats row locks of its users so concurrent session writes cannot interleave.
+ * Runs at startup when {@code stats.rebuild-on-startup=true}.
+ */
+@Component
+public class PracticeStatsRebuilder implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PracticeStatsRebuilder.class);
+
+    private final UserRepository userRepository;
+    private final PracticeStatsRepository statsRepository;
+    private final DailyPracticeRepository dailyRepository;
+    private final AsanaPracticeRepository asanaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public PracticeStatsRebuilder(UserRepository userRepository,
+                                  PracticeStatsRepository statsRepository,
+                                  DailyPracticeRepository dailyRepository,
+                                  AsanaPracticeRepository asanaRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${stats.rebuild-on-startup:false}") boolean rebuildOnStartup,
+                                  @Value("${stats.rebuild.chunk-size:1000}") int chunkSize,
+                                  @Value("${stats.rebuild.parallelism:4}") int parallelism) {
+        this.userRepository = userRepository;
+        this.statsRepository = statsRepository;
+        this.dailyRepository = dailyRepository;
+        this.asanaRepository = asanaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (rebuildOnStartup) {
+            rebuildAll();
+        }
+    }
+
+    public void rebuildAll() throws InterruptedException, ExecutionException {
+        Long maxUserId = userRepository.findMaxId();
+        if (maxUserId == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long lo = 1; lo <= maxUserId; lo += chunkSize) {
+                long from = lo;
+                long to = Math.min(lo + chunkSize - 1, maxUserId);
+                chunks.add(pool.submit(() -> transactionTemplate.executeWithoutResult(tx -> rebuildRange(from, to))));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+            logger.info("Rebuilt practice stats for {} user id chunks in {} ms",
+                    chunks.size(), (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Rebuilds aggregates for users with ids in {@code [lo, hi]}; must run in a transaction.
+     */
+    void rebuildRange(long lo, long hi) {
+        statsRepository.ensureExistsForRange(lo, hi);
+        statsRepository.lockRange(lo, hi);
+        dailyRepository.deleteRange(lo, hi);
+        dailyRepository.insertFromSessions(lo, hi);
+        asanaRepository.deleteRange(lo, hi);
+        asanaRepository.insertFromSessions(lo, hi);
+        statsRepository.recomputeTotals(lo, hi);
+        statsRepository.recomputeStreaks(lo, hi);
+    }
+}
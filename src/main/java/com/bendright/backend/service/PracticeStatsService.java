@@ -0,0 +1,151 @@
+package com.bendright.backend.service;
+
+import com.bendright.backend.dto.PracticeStatsResponse;
+import com.bendright.backend.dto.PracticeStatsResponse.AsanaCount;
+import com.bendright.backend.dto.PracticeStatsResponse.PeriodCount;
+import com.bendright.backend.dto.SessionView;
+import com.bendright.backend.model.Asana;
+import com.bendright.backend.model.DailyPractice;
+import com.bendright.backend.model.SessionStatus;
+import com.bendright.backend.model.UserPracticeStats;
+import com.bendright.backend.repository.AsanaPracticeRepository;
+import com.bendright.backend.repository.DailyPracticeRepository;
+import com.bendright.backend.repository.PracticeStatsRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains per-user practice aggregates as sessions are written and serves them without
+ * scanning session history: reads touch one stats row, one row per practiced asana and at
+ * most a year of daily rows.
+ */
+@Service
+public class PracticeStatsService {
+
+    private static final int WEEKS = 12;
+    private static final int MONTHS = 12;
+
+    private final PracticeStatsRepository statsRepository;
+    private final DailyPracticeRepository dailyRepository;
+    private final AsanaPracticeRepository asanaRepository;
+    private final AsanaCatalog asanaCatalog;
+    private final AsanaPopularity asanaPopularity;
+    private final PracticeCalendarService calendarService;
+
+    public PracticeStatsService(PracticeStatsRepository statsRepository,
+                                DailyPracticeRepository dailyRepository,
+                                AsanaPracticeRepository asanaRepository,
+                                AsanaCatalog asanaCatalog,
+                                AsanaPopularity asanaPopularity,
+                                PracticeCalendarService calendarService) {
+        this.statsRepository = statsRepository;
+        this.dailyRepository = dailyRepository;
+        this.asanaRepository = asanaRepository;
+        this.asanaCatalog = asanaCatalog;
+        this.asanaPopularity = asanaPopularity;
+        this.calendarService = calendarService;
+    }
+
+    /**
+     * Folds newly stored sessions of one user into the aggregates. Must run in the transaction
+     * that stored them, so aggregates and history commit or roll back together.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSessions(Long userId, Collection<SessionView> stored) {
+        if (stored.isEmpty()) {
+            return;
+        }
+        // Lock the stats row first: concurrent writers and a running rebuild for this user queue here
+        statsRepository.ensureExists(userId);
+        UserPracticeStats stats = statsRepository.lockByUserId(userId);
+
+        Map<LocalDate, int[]> byDay = new TreeMap<>();
+        Map<Asana, long[]> byAsana = new HashMap<>();
+        long completed = 0;
+        for (SessionView s : stored) {
+            int done = s.status() == SessionStatus.COMPLETED ? 1 : 0;
+            completed += done;
+            int[] day = byDay.computeIfAbsent(s.date(), d -> new int[2]);
+            day[0]++;
+            day[1] += done;
+            long[] asana = byAsana.computeIfAbsent(s.asana(), a -> new long[2]);
+            asana[0]++;
+            asana[1] += done;
+        }
+        byDay.forEach((day, n) -> dailyRepository.increment(userId, day, n[0], n[1]));
+        byAsana.forEach((asana, n) -> asanaRepository.increment(userId, asana.id(), n[0], n[1]));
+
+        stats.addSessions(stored.size(), completed);
+        asanaPopularity.recordAfterCommit(stored);
+        calendarService.recordAfterCommit(userId, stored);
+        boolean streaksCurrent = true;
+        for (LocalDate day : byDay.keySet()) {
+            streaksCurrent &= stats.applyPracticeDay(day);
+        }
+        if (!streaksCurrent) {
+            // A backfilled day may join earlier runs; rare enough to recompute from this user's daily rows
+            statsRepository.recomputeStreaks(userId, userId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public PracticeStatsResponse getStats(Long userId) {
+        LocalDate today = LocalDate.now();
+        UserPracticeStats stats = statsRepository.findById(userId).orElseGet(UserPracticeStats::new);
+
+        List<AsanaCount> asanas = asanaRepository.findByUserIdOrderByTotalDesc(userId).stream()
+                .map(a -> new AsanaCount(asanaCatalog.byId(a.getAsanaId()).name(), a.getTotal(), a.getCompleted()))
+                .toList();
+
+        LocalDate firstWeek = today.with(DayOfWeek.MONDAY).minusWeeks(WEEKS - 1);
+        LocalDate firstMonth = today.withDayOfMonth(1).minusMonths(MONTHS - 1);
+        Map<LocalDate, long[]> weeks = emptyPeriods(firstWeek, WEEKS, true);
+        Map<LocalDate, long[]> months = emptyPeriods(firstMonth, MONTHS, false);
+        LocalDate from = firstWeek.isBefore(firstMonth) ? firstWeek : firstMonth;
+        for (DailyPractice d : dailyRepository.findByUserIdAndDayGreaterThanEqualOrderByDay(userId, from)) {
+            addTo(weeks.get(d.getDay().with(DayOfWeek.MONDAY)), d);
+            addTo(months.get(d.getDay().withDayOfMonth(1)), d);
+        }
+
+        LocalDate last = stats.getStreakEnd();
+        // The latest run only counts as current while it reaches today or yesterday
+        int currentStreak = last != null && !last.isBefore(today.minusDays(1)) ? stats.streakLength() : 0;
+        double completionRate = stats.getTotalSessions() == 0
+                ? 0.0 : (double) stats.getCompletedSessions() / stats.getTotalSessions();
+        return new PracticeStatsResponse(stats.getTotalSessions(), stats.getCompletedSessions(), completionRate,
+                currentStreak, stats.getLongestStreak(), last, asanas, toPeriods(weeks), toPeriods(months));
+    }
+
+    private static Map<LocalDate, long[]> emptyPeriods(LocalDate first, int count, boolean weekly) {
+        Map<LocalDate, long[]> periods = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            periods.put(weekly ? first.plusWeeks(i) : first.plusMonths(i), new long[2]);
+        }
+        return periods;
+    }
+
+    private static void addTo(long[] period, DailyPractice d) {
+        // Sessions dated in the future fall outside every period
+        if (period != null) {
+            period[0] += d.getTotal();
+            period[1] += d.getCompleted();
+        }
+    }
+
+    private static List<PeriodCount> toPeriods(Map<LocalDate, long[]> periods) {
+        List<PeriodCount> result = new ArrayList<>(periods.size());
+        periods.forEach((start, n) -> result.add(new PeriodCount(start, n[0], n[1])));
+        return result;
+    }
+}
@@ -0,0 +1,225 @@
+package com.bendright.backend.service;
+
+import com.bendright.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the yearly partitions of the sessions table (see the V8 migration) and, when
+ * {@code sessions.archive.enabled=true}, moves sessions older than {@code sessions.archive.horizon} into
+ * {@code sessions_archive}, one compact row per user and year.
+ * <p>
+ * Every {@code sessions.archive.interval}: partitions are created up to {@code sessions.partitions.years-ahead}
+ * years ahead, moving any rows of those years out of the default partition; whole years before the cutoff
+ * are archived in user id chunks, each chunk in one statement that also bumps the users' revisions; and
+ * yearly partitions left empty are dropped. Archived sessions still count in practice stats rebuilds and
+ * are listed by {@code GET /api/sessions?includeArchived=true}.
+ */
+@Component
+public class SessionArchiver implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionArchiver.class);
+
+    // Serializes partition changes between instances sharing the database
+    private static final String PARTITION_LOCK = "select pg_advisory_xact_lock(hashtext('sessions_partitions'))";
+
+    private static final String ARCHIVE_RANGE = """
+            with moved as (
+                delete from sessions where user_id between :lo and :hi and date < :cutoff
+                returning id, date, status, asana_id, user_id
+            ), packed as (
+                insert into sessions_archive (user_id, year, ids, days, asana_ids, completed)
+                select user_id, extract(year from date)::smallint,
+                       array_agg(id order by date, id),
+                       array_agg((date - make_date(extract(year from date)::int, 1, 1))::smallint order by date, id),
+                       array_agg(asana_id order by date, id),
+                       array_agg(status = 'COMPLETED' order by date, id)
+                from moved group by user_id, extract(year from date)
+                on conflict (user_id, year) do update set
+                    ids = sessions_archive.ids || excluded.ids,
+                    days = sessions_archive.days || excluded.days,
+                    asana_ids = sessions_archive.asana_ids || excluded.asana_ids,
+                    completed = sessions_archive.completed || excluded.completed
+                returning user_id
+            ), bumped as (
+                insert into user_session_revisions (user_id, revision) select distinct user_id, 1 from packed
+                on conflict (user_id) do update set revision = user_session_revisions.revision + 1
+            )
+            select count(*) from moved""";
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final boolean archiveEnabled;
+    private final Period horizon;
+    private final Duration interval;
+    private final int yearsAhead;
+    private final int chunkSize;
+    private final Counter archived;
+
+    private ScheduledExecutorService scheduler;
+
+    public SessionArchiver(UserRepository userRepository,
+                           TransactionTemplate transactionTemplate,
+                           EntityManager entityManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${sessions.archive.enabled:false}") boolean archiveEnabled,
+                           @Value("${sessions.archive.horizon:2y}") Period horizon,
+                           @Value("${sessions.archive.interval:1d}") Duration interval,
+                           @Value("${sessions.archive.chunk-size:1000}") int chunkSize,
+                           @Value("${sessions.partitions.years-ahead:2}") int yearsAhead) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.archiveEnabled = archiveEnabled;
+        this.horizon = horizon;
+        this.interval = interval;
+        this.chunkSize = chunkSize;
+        this.yearsAhead = yearsAhead;
+        this.archived = Counter.builder("sessions.archived")
+                .description("Sessions moved from the sessions table to the archive")
+                .register(meterRegistry);
+    }
+
+    /**
+     * One maintenance pass; also run on a schedule.
+     */
+    public void runOnce() {
+        int thisYear = LocalDate.now().getYear();
+        for (int year = thisYear; year <= thisYear + yearsAhead; year++) {
+            int y = year;
+            transactionTemplate.executeWithoutResult(tx -> ensurePartition(y));
+        }
+        if (!archiveEnabled) {
+            return;
+        }
+        LocalDate cutoff = LocalDate.now().minus(horizon).withDayOfYear(1);
+        long moved = archiveBefore(cutoff);
+        if (moved > 0) {
+            logger.info("Archived {} sessions dated before {}", moved, cutoff);
+        }
+        for (int year : partitionYears()) {
+            if (year < cutoff.getYear()) {
+                dropIfEmpty(year);
+            }
+        }
+    }
+
+    long archiveBefore(LocalDate cutoff) {
+        Long maxUserId = userRepository.findMaxId();
+        long total = 0;
+        for (long lo = 1; maxUserId != null && lo <= maxUserId; lo += chunkSize) {
+            long from = lo;
+            long to = Math.min(lo + chunkSize - 1, maxUserId);
+            Number moved = transactionTemplate.execute(tx -> (Number) entityManager.createNativeQuery(ARCHIVE_RANGE)
+                    .setParameter("lo", from)
+                    .setParameter("hi", to)
+                    .setParameter("cutoff", cutoff)
+                    .getSingleResult());
+            total += moved.longValue();
+            archived.increment(moved.doubleValue());
+        }
+        return total;
+    }
+
+    private void ensurePartition(int year) {
+        entityManager.createNativeQuery(PARTITION_LOCK).getSingleResult();
+        if (partitionYears().contains(year)) {
+            return;
+        }
+        // Rows of this year may sit in the default partition; attaching requires them gone from it
+        String partition = "sessions_y" + year;
+        String range = "date >= '" + year + "-01-01' and date < '" + (year + 1) + "-01-01'";
+        execute("create table " + partition + " (like sessions including defaults including constraints)");
+        execute("with moved as (delete from sessions_default where " + range + " returning *)"
+                + " insert into " + partition + " select * from moved");
+        execute("alter table sessions attach partition " + partition
+                + " for values from ('" + year + "-01-01') to ('" + (year + 1) + "-01-01')");
+        logger.info("Created sessions partition {}", partition);
+    }
+
+    private void dropIfEmpty(int year) {
+        String partition = "sessions_y" + year;
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                entityManager.createNativeQuery(PARTITION_LOCK).getSingleResult();
+                // Dropping locks the parent table; give up rather than stall session traffic behind it
+                execute("set local lock_timeout = '2s'");
+                execute("lock table sessions in access exclusive mode");
+                if (!partitionYears().contains(year)
+                        || !entityManager.createNativeQuery("select 1 from " + partition + " limit 1").getResultList().isEmpty()) {
+                    return;
+                }
+                execute("drop table " + partition);
+                logger.info("Dropped archived sessions partition {}", partition);
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Could not drop sessions partition {}, will retry: {}", partition, e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> partitionYears() {
+        List<String> names = entityManager.createNativeQuery("select c.relname::text from pg_inherits i"
+                        + " join pg_class c on c.oid = i.inhrelid"
+                        + " where i.inhparent = 'sessions'::regclass and c.relname ~ '^sessions_y[0-9]{4}$'")
+                .getResultList();
+        return names.stream().map(name -> Integer.parseInt(name.substring("sessions_y".length()))).toList();
+    }
+
+    private void execute(String sql) {
+        entityManager.createNativeQuery(sql).executeUpdate();
+    }
+
+    private void runSafely() {
+        try {
+            runOnce();
+        } catch (RuntimeException e) {
+            logger.error("Session archiving failed, will retry in {}", interval, e);
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -1,32 +1,416 @@
 package com.bendright.backend.service;
 
+import com.bendright.backend.config.ReadYourWritesTracker;
+import com.bendright.backend.dto.BulkSessionResult;
+import com.bendright.backend.dto.KeyedSessionView;
+import com.bendright.backend.dto.SessionCursor;
+import com.bendright.backend.dto.SessionPage;
+import com.bendright.backend.dto.SessionRequest;
+import com.bendright.backend.dto.SessionView;
+import com.bendright.backend.model.Asana;
 import com.bendright.backend.model.Session;
+import com.bendright.backend.model.SessionClientKey;
 import com.bendright.backend.model.SessionStatus;
 import com.bendright.backend.model.User;
 import com.bendright.backend.repository.SessionRepository;
+import com.bendright.backend.repository.SessionRevisionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Date;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import com.bendright.backend.model.User;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class SessionService {
 
+    private static final int MAX_CLIENT_KEY_LENGTH = 64;
+
     private final SessionRepository sessionRepository;
+    private final SessionRevisionRepository revisionRepository;
+    private final IdempotencyCache idempotencyCache;
+    private final PracticeStatsService practiceStatsService;
+    private final AsanaCatalog asanaCatalog;
+    private final ReadYourWritesTracker readYourWrites;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int exportClearInterval;
+    private final int bulkFlushSize;
 
-    public SessionService(SessionRepository sessionRepository) {
+    public SessionService(SessionRepository sessionRepository,
+                          SessionRevisionRepository revisionRepository,
+                          IdempotencyCache idempotencyCache,
+                          PracticeStatsService practiceStatsService,
+                          AsanaCatalog asanaCatalog,
+                          ReadYourWritesTracker readYourWrites,
+                          TransactionTemplate transactionTemplate,
+                          EntityManager entityManager,
+                          ObjectMapper objectMapper,
+                          @Value("${sessions.page.default-size:50}") int defaultPageSize,
+                          @Value("${sessions.page.max-size:200}") int maxPageSize,
+                          @Value("${sessions.export.clear-interval:500}") int exportClearInterval,
+                          @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int bulkFlushSize) {
         this.sessionRepository = sessionRepository;
+        this.revisionRepository = revisionRepository;
+        this.idempotencyCache = idempotencyCache;
+        this.practiceStatsService = practiceStatsService;
+        this.asanaCatalog = asanaCatalog;
+        this.readYourWrites = readYourWrites;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.exportClearInterval = exportClearInterval;
+        this.bulkFlushSize = bulkFlushSize;
+    }
+
+    /**
+     * Stores one session. When {@code clientKey} is given the write is idempotent: a repeat of a key
+     * this user already stored, whatever its date, returns the original session (even once archived)
+     * instead of adding a row, answered from memory when the key was seen recently and otherwise
+     * resolved by the primary key of {@code session_client_keys}.
+     * The arguments come from {@link #parseStatus}, {@link #parseDate}, {@link #validateClientKey} and
+     * then {@link AsanaCatalog#resolve}, called before this transaction starts.
+     */
+    @Transactional
+    public SessionView createSession(User user, SessionStatus status, LocalDate date, Asana asana, String clientKey) {
+        readYourWrites.recordWrite(user.getId());
+        if (clientKey == null) {
+            Session session = new Session(status, date, asana, user);
+            session.setRevision(revisionRepository.nextRevision(user.getId()));
+            SessionView created = SessionView.from(sessionRepository.save(session));
+            practiceStatsService.recordSessions(user.getId(), List.of(created));
+            return created;
+        }
+        Long userId = user.getId();
+        SessionView recent = idempotencyCache.get(userId, clientKey);
+        if (recent != null) {
+            return recent;
+        }
+        Optional<Long> insertedId = sessionRepository.insertIfAbsent(status.name(), date, asana.id(), userId, clientKey);
+        SessionView stored;
+        if (insertedId.isPresent()) {
+            stored = new SessionView(insertedId.get(), status, date, asana);
+            practiceStatsService.recordSessions(userId, List.of(stored));
+        } else {
+            stored = findKeyed(userId, List.of(clientKey)).get(0).view();
+        }
+        idempotencyCache.rememberAfterCommit(Map.of(new IdempotencyCache.Key(userId, clientKey), stored));
+        return stored;
+    }
+
+    /**
+     * Validates every item in one pass, then stores the valid ones with JDBC batching
+     * (ids come from the pooled sequence, so nothing forces a per-row round trip).
+     * Invalid items are reported individually and do not prevent the rest from being stored.
+     * Items carrying a client key already stored for this user are reported as duplicates of the
+     * existing row; keys are resolved from the idempotency window first and then with a single query.
+     *
+     * @return one result per item, in request order
+     */
+    public List<BulkSessionResult> createSessions(User user, List<SessionRequest> items) {
+        BulkSessionResult[] rejected = new BulkSessionResult[items.size()];
+        ValidItem[] valid = new ValidItem[items.size()];
+        // Names are resolved only for items that are otherwise valid; catalog entries for new names
+        // commit on their own, before the batch transaction
+        Map<String, AsanaLookup> asanas = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                valid[i] = validate(items.get(i), asanas, user.getId());
+            } catch (InvalidSessionException e) {
+                rejected[i] = BulkSessionResult.rejected(i, e.getMessage());
+            }
+        }
+        try {
+            return transactionTemplate.execute(tx -> storeSessions(user, valid, rejected));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request stored one of these client keys after our lookup;
+            // the whole batch rolled back, and the retry reports that key as a duplicate.
+            return transactionTemplate.execute(tx -> storeSessions(user, valid, rejected));
+        }
+    }
+
+    private List<BulkSessionResult> storeSessions(User user, ValidItem[] items, BulkSessionResult[] rejected) {
+        Long userId = user.getId();
+        BulkSessionResult[] results = rejected.clone();
+        Map<String, SessionView> knownKeys = new HashMap<>();
+        Set<String> unresolvedKeys = new HashSet<>();
+
+        for (ValidItem item : items) {
+            String key = item == null ? null : item.clientKey();
+            if (key != null && !knownKeys.containsKey(key)) {
+                SessionView recent = idempotencyCache.get(userId, key);
+                if (recent != null) {
+                    knownKeys.put(key, recent);
+                } else {
+                    unresolvedKeys.add(key);
+                }
+            }
+        }
+        if (!unresolvedKeys.isEmpty()) {
+            for (KeyedSessionView existing : findKeyed(userId, unresolvedKeys)) {
+                knownKeys.put(existing.clientKey(), existing.view());
+            }
+        }
+
+        Map<IdempotencyCache.Key, SessionView> stored = new HashMap<>();
+        List<SessionView> created = new ArrayList<>();
+        long revision = 0;
+        int pending = 0;
+        for (int i = 0; i < items.length; i++) {
+            ValidItem item = items[i];
+            if (item == null) {
+                continue;
+            }
+            String key = item.clientKey();
+            SessionView existing = key == null ? null : knownKeys.get(key);
+            if (existing != null) {
+                results[i] = BulkSessionResult.duplicate(i, existing.id());
+                continue;
+            }
+            if (revision == 0) {
+                // One revision for everything this request stores
+                revision = revisionRepository.nextRevision(userId);
+                readYourWrites.recordWrite(userId);
+            }
+            Session s = new Session(item.status(), item.date(), item.asana(), user);
+            s.setClientKey(key);
+            s.setRevision(revision);
+            entityManager.persist(s);
+            if (key != null) {
+                entityManager.persist(new SessionClientKey(userId, key, s.getId(), s.getDate()));
+            }
+            results[i] = BulkSessionResult.created(i, s.getId());
+            SessionView view = SessionView.from(s);
+            created.add(view);
+            if (key != null) {
+                // Later items in this request repeating the key become duplicates of this one
+                knownKeys.put(key, view);
+                stored.put(new IdempotencyCache.Key(userId, key), view);
+            }
+            // Keep the persistence context small for large uploads; each flush is one JDBC batch
+            if (++pending % bulkFlushSize == 0) {
+                sessionRepository.flush();
+                entityManager.clear();
+            }
+        }
+        practiceStatsService.recordSessions(userId, created);
+        idempotencyCache.rememberAfterCommit(stored);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * The sessions, live or archived, stored under any of the user's {@code clientKeys}.
+     */
+    private List<KeyedSessionView> findKeyed(Long userId, Collection<String> clientKeys) {
+        List<KeyedSessionView> found = new ArrayList<>();
+        for (Object[] row : sessionRepository.findRowsByUserIdAndClientKeyIn(userId, clientKeys)) {
+            found.add(new KeyedSessionView((String) row[0], ((Number) row[1]).longValue(),
+                    SessionStatus.valueOf((String) row[2]), ((Date) row[3]).toLocalDate(),
+                    asanaCatalog.byId(((Number) row[4]).shortValue())));
+        }
+        return found;
+    }
+
+    public static SessionStatus parseStatus(String statusStr) {
+        try {
+            return SessionStatus.valueOf(String.valueOf(statusStr).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSessionException("status must be pending or completed");
+        }
+    }
+
+    public static LocalDate parseDate(String dateStr) {
+        if (dateStr == null) {
+            throw new InvalidSessionException("date must be yyyy-MM-dd");
+        }
+        try {
+            return LocalDate.parse(dateStr);
+        } catch (DateTimeParseException e) {
+            throw new InvalidSessionException("date must be yyyy-MM-dd");
+        }
+    }
+
+    public static void validateClientKey(String clientKey) {
+        if (clientKey.isBlank() || clientKey.length() > MAX_CLIENT_KEY_LENGTH) {
+            throw new InvalidSessionException("clientKey must be 1 to " + MAX_CLIENT_KEY_LENGTH + " characters");
+        }
     }
 
-    public Session createSession(User user, String statusStr, String dateStr, String asana) {
-        SessionStatus status = SessionStatus.valueOf(statusStr.toUpperCase());
-        LocalDate date = LocalDate.parse(dateStr);
-        Session s = new Session(status, date, asana, user);
-        return sessionRepository.save(s);
+    private ValidItem validate(SessionRequest item, Map<String, AsanaLookup> asanas, Long userId) {
+        if (item == null || item.status() == null || item.date() == null || item.asana() == null || item.asana().isBlank()) {
+            throw new InvalidSessionException("status, date and asana are required");
+        }
+        SessionStatus status = parseStatus(item.status());
+        LocalDate date = parseDate(item.date());
+        if (item.clientKey() != null) {
+            validateClientKey(item.clientKey());
+        }
+        AsanaLookup lookup = asanas.computeIfAbsent(item.asana(), name -> {
+            try {
+                return new AsanaLookup(asanaCatalog.resolve(name, userId), null);
+            } catch (InvalidSessionException e) {
+                return new AsanaLookup(null, e.getMessage());
+            }
+        });
+        if (lookup.asana() == null) {
+            throw new InvalidSessionException(lookup.error());
+        }
+        return new ValidItem(status, date, lookup.asana(), item.clientKey());
+    }
+
+    private record ValidItem(SessionStatus status, LocalDate date, Asana asana, String clientKey) {}
+
+    /**
+     * The catalog entry for one requested name, or why it was refused; each name is resolved once per request.
+     */
+    private record AsanaLookup(Asana asana, String error) {}
+
+    /**
+     * Writes all of the user's sessions to {@code out} as one array, oldest first, serializing each
+     * row as it is read instead of collecting the list first. {@code mapper} selects the wire format
+     * (JSON, CBOR or Smile).
+     */
+    @Transactional(readOnly = true)
+    public void writeSessions(Long userId, ObjectMapper mapper, OutputStream out) throws IOException {
+        try (Stream<SessionView> sessions = sessionRepository.streamViewsByUserId(userId);
+             JsonGenerator generator = createGenerator(mapper, out)) {
+            writeArray(generator, sessions);
+        }
+    }
+
+    /**
+     * Like {@link #writeSessions}, with the sessions moved to the archive by {@link SessionArchiver}
+     * included in date order.
+     */
+    @Transactional(readOnly = true)
+    public void writeSessionsWithArchive(Long userId, ObjectMapper mapper, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = sessionRepository.streamRowsWithArchiveByUserId(userId);
+             JsonGenerator generator = createGenerator(mapper, out)) {
+            writeArray(generator, rows.map(row -> new SessionView(((Number) row[0]).longValue(),
+                    SessionStatus.valueOf((String) row[1]), ((Date) row[2]).toLocalDate(),
+                    asanaCatalog.byId(((Number) row[3]).shortValue()))));
+        }
+    }
+
+    /**
+     * The user's current session revision; it increases with every write that stores sessions.
+     * Read from the same database as the listing that follows it in the request.
+     */
+    @Transactional(readOnly = true)
+    public long currentRevision(Long userId) {
+        return revisionRepository.findRevision(userId).orElse(0L);
+    }
+
+    /**
+     * Writes the sessions stored after {@code sinceRevision} to {@code out} as
+     * {@code {"revision": ..., "sessions": [...]}}, where {@code revision} is the value returned by
+     * {@link #currentRevision} before this call; clients pass it as {@code sinceRevision} on their next
+     * sync. Rows with higher revisions committed in between may be included too; the client then
+     * receives them again on its next sync, but never misses one.
+     */
+    @Transactional(readOnly = true)
+    public void writeSessionsChangedSince(Long userId, long sinceRevision, long revision, ObjectMapper mapper,
+                                          OutputStream out) throws IOException {
+        try (Stream<SessionView> sessions = sessionRepository.streamViewsByUserIdChangedAfter(userId, sinceRevision);
+             JsonGenerator generator = createGenerator(mapper, out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("revision", revision);
+            generator.writeFieldName("sessions");
+            writeArray(generator, sessions);
+            generator.writeEndObject();
+        }
+    }
+
+    private static JsonGenerator createGenerator(ObjectMapper mapper, OutputStream out) throws IOException {
+        JsonGenerator generator = mapper.getFactory().createGenerator(out);
+        // The servlet container owns the response stream
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private static void writeArray(JsonGenerator generator, Stream<SessionView> sessions) throws IOException {
+        generator.writeStartArray();
+        Iterator<SessionView> it = sessions.iterator();
+        while (it.hasNext()) {
+            generator.writeObject(it.next());
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Returns one keyset page of the user's history, newest first.
+     *
+     * @param cursor the {@code nextCursor} of the previous page, or null for the first page
+     * @param limit requested page size; null selects the default and larger values are capped
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public SessionPage listSessionPage(Long userId, String cursor, LocalDate from, LocalDate to,
+                                       SessionStatus status, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        SessionCursor after = cursor == null || cursor.isBlank() ? null : SessionCursor.decode(cursor);
+
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<SessionView> rows = sessionRepository.findPage(userId, after, from, to, status, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new SessionPage(rows, null);
+        }
+        List<SessionView> items = rows.subList(0, pageSize);
+        SessionView last = items.get(pageSize - 1);
+        return new SessionPage(List.copyOf(items), new SessionCursor(last.date(), last.id()).encode());
     }
 
-    public List<Session> listSessionsForUser(User user) {
-        return sessionRepository.findByUser(user);
+    /**
+     * Writes the user's sessions (optionally only those dated on or after {@code since}) to {@code out}
+     * as newline-delimited JSON, oldest first. Rows are streamed from the database and the persistence
+     * context is cleared periodically, so memory stays flat regardless of history size.
+     *
+     * @return the number of sessions written
+     */
+    @Transactional(readOnly = true)
+    public long exportSessions(Long userId, LocalDate since, OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Session> sessions = since == null
+                ? sessionRepository.streamByUserId(userId)
+                : sessionRepository.streamByUserIdSince(userId, since);
+             JsonGenerator generator = createGenerator(objectMapper, out)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            Iterator<Session> it = sessions.iterator();
+            while (it.hasNext()) {
+                generator.writeObject(SessionView.from(it.next()));
+                if (++count % exportClearInterval == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return count;
     }
 }
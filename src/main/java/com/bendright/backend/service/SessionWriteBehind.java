@@ -0,0 +1,359 @@
+package com.bendright.backend.service;
+
+import com.bendright.backend.config.ReadYourWritesTracker;
+import com.bendright.backend.dto.SessionView;
+import com.bendright.backend.model.Asana;
+import com.bendright.backend.model.Session;
+import com.bendright.backend.model.SessionStatus;
+import com.bendright.backend.model.User;
+import com.bendright.backend.repository.SessionRevisionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional write-behind path for single session creates ({@code sessions.write-behind.enabled}).
+ * Accepted sessions wait in a bounded queue; one writer thread stores them in batches of up to
+ * {@code batch-size}, at most {@code max-delay} after the first one arrived, one transaction and
+ * one revision per user per batch, with JDBC batching turning the inserts into multi-row statements.
+ * <p>
+ * With {@code ack=after-flush} a create completes once its batch committed, with the stored id.
+ * With {@code ack=after-enqueue} it completes as soon as it is queued, without an id; sessions still
+ * queued are lost if the process dies. When the queue stays full for {@code enqueue-timeout}, creates
+ * fail with {@link SessionWriteBehindUnavailableException}. On shutdown, which runs after the web server
+ * finished its in-flight requests, the queue is drained before the database pool closes.
+ * <p>
+ * A batch refused for its data (a constraint or foreign key violation, e.g. a user deleted meanwhile)
+ * is stored again one session at a time, and only the refused sessions are dropped. Any other failure,
+ * such as a lost connection or a saturated pool, is retried for the whole batch with exponential backoff
+ * from {@code retry.initial-backoff} to {@code retry.max-backoff}; meanwhile the queue fills and creates
+ * get 503. Once shutdown began, batches still failing after {@code retry.shutdown-timeout} are dropped.
+ */
+@Component
+public class SessionWriteBehind implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionWriteBehind.class);
+
+    public enum Ack { AFTER_FLUSH, AFTER_ENQUEUE }
+
+    private static final long STOP_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final SessionRevisionRepository revisionRepository;
+    private final PracticeStatsService practiceStatsService;
+    private final ReadYourWritesTracker readYourWrites;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final boolean enabled;
+    private final Ack ack;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long enqueueTimeoutNanos;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final long shutdownTimeoutNanos;
+    private final BlockingQueue<PendingSession> queue;
+    // Queued plus taken by the writer but not yet committed
+    private final AtomicInteger unflushed = new AtomicInteger();
+    private final Timer flushes;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private final Counter failed;
+    private final Counter retries;
+
+    private volatile boolean accepting;
+    private volatile boolean stopping;
+    private volatile long stopDeadline;
+    private Thread writer;
+
+    public SessionWriteBehind(SessionRevisionRepository revisionRepository,
+                              PracticeStatsService practiceStatsService,
+                              ReadYourWritesTracker readYourWrites,
+                              TransactionTemplate transactionTemplate,
+                              EntityManager entityManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${sessions.write-behind.enabled:false}") boolean enabled,
+                              @Value("${sessions.write-behind.ack:after-flush}") Ack ack,
+                              @Value("${sessions.write-behind.queue-capacity:10000}") int queueCapacity,
+                              @Value("${sessions.write-behind.batch-size:500}") int batchSize,
+                              @Value("${sessions.write-behind.max-delay:50ms}") Duration maxDelay,
+                              @Value("${sessions.write-behind.enqueue-timeout:100ms}") Duration enqueueTimeout,
+                              @Value("${sessions.write-behind.retry.initial-backoff:100ms}") Duration initialBackoff,
+                              @Value("${sessions.write-behind.retry.max-backoff:5s}") Duration maxBackoff,
+                              @Value("${sessions.write-behind.retry.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.revisionRepository = revisionRepository;
+        this.practiceStatsService = practiceStatsService;
+        this.readYourWrites = readYourWrites;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.enabled = enabled;
+        this.ack = ack;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.enqueueTimeoutNanos = enqueueTimeout.toNanos();
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.shutdownTimeoutNanos = shutdownTimeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("sessions.write-behind.queue.depth", unflushed, AtomicInteger::get)
+                .description("Sessions accepted but not yet stored")
+                .register(meterRegistry);
+        this.flushes = Timer.builder("sessions.write-behind.flush")
+                .description("Time to store one batch of queued sessions")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("sessions.write-behind.batch.size")
+                .description("Sessions stored per flush")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("sessions.write-behind.rejected")
+                .description("Creates turned away because the queue was full or shutting down")
+                .register(meterRegistry);
+        this.failed = Counter.builder("sessions.write-behind.failed")
+                .description("Queued sessions that could not be stored")
+                .register(meterRegistry);
+        this.retries = Counter.builder("sessions.write-behind.retries")
+                .description("Batch store attempts repeated after a database failure")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues one validated session for the background writer. The asana comes from
+     * {@link AsanaCatalog#resolve}.
+     *
+     * @throws SessionWriteBehindUnavailableException if the queue stayed full for the enqueue timeout
+     */
+    public CompletableFuture<SessionView> submit(User user, SessionStatus status, LocalDate date, Asana asana) {
+        PendingSession pending = new PendingSession(user.getId(), status, date, asana, new CompletableFuture<>());
+        boolean queued = false;
+        if (accepting) {
+            try {
+                queued = queue.offer(pending, enqueueTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!queued) {
+            rejected.increment();
+            throw new SessionWriteBehindUnavailableException();
+        }
+        unflushed.incrementAndGet();
+        if (ack == Ack.AFTER_ENQUEUE) {
+            return CompletableFuture.completedFuture(new SessionView(null, status, date, asana));
+        }
+        return pending.result();
+    }
+
+    private void runWriter() {
+        List<PendingSession> batch = new ArrayList<>(batchSize);
+        while (true) {
+            PendingSession first;
+            try {
+                first = queue.poll(STOP_CHECK_NANOS, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (first == null) {
+                if (stopping) {
+                    break;
+                }
+                continue;
+            }
+            batch.add(first);
+            long deadline = System.nanoTime() + maxDelayNanos;
+            // Fill the batch until it is full or the first session waited max-delay; flush at once when stopping
+            while (batch.size() < batchSize) {
+                queue.drainTo(batch, batchSize - batch.size());
+                long remaining = deadline - System.nanoTime();
+                if (batch.size() >= batchSize || remaining <= 0 || stopping) {
+                    break;
+                }
+                PendingSession next;
+                try {
+                    // Short waits, so a stop is noticed while a long max-delay is running
+                    next = queue.poll(Math.min(remaining, STOP_CHECK_NANOS), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (next != null) {
+                    batch.add(next);
+                }
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<PendingSession> batch) {
+        try {
+            storeAndComplete(batch);
+        } finally {
+            unflushed.addAndGet(-batch.size());
+        }
+    }
+
+    private void storeAndComplete(List<PendingSession> batch) {
+        long backoffNanos = initialBackoffNanos;
+        while (true) {
+            long started = System.nanoTime();
+            try {
+                Map<PendingSession, SessionView> stored = transactionTemplate.execute(tx -> store(batch));
+                flushes.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                batchSizes.record(batch.size());
+                stored.forEach((pending, view) -> pending.result().complete(view));
+                return;
+            } catch (RuntimeException e) {
+                if (isDataError(e)) {
+                    if (batch.size() == 1) {
+                        drop(batch, e);
+                        return;
+                    }
+                    // One bad row (e.g. its user was deleted meanwhile) must not fail the others
+                    logger.warn("A batch of {} sessions was refused, storing them one by one: {}", batch.size(), e.getMessage());
+                    for (PendingSession pending : batch) {
+                        storeAndComplete(List.of(pending));
+                    }
+                    return;
+                }
+                if (stopping && System.nanoTime() - stopDeadline > 0) {
+                    drop(batch, e);
+                    return;
+                }
+                retries.increment();
+                logger.warn("Storing a batch of {} sessions failed, retrying in {} ms: {}",
+                        batch.size(), TimeUnit.NANOSECONDS.toMillis(backoffNanos), e.getMessage());
+                try {
+                    TimeUnit.NANOSECONDS.sleep(backoffNanos);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    drop(batch, e);
+                    return;
+                }
+                backoffNanos = Math.min(backoffNanos * 2, maxBackoffNanos);
+            }
+        }
+    }
+
+    private void drop(List<PendingSession> batch, RuntimeException cause) {
+        for (PendingSession pending : batch) {
+            failed.increment();
+            logger.warn("Dropping queued session of user {}: {}", pending.userId(), cause.getMessage());
+            pending.result().completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Whether the database refused the rows themselves (SQLSTATE class 22 data exception or 23 integrity
+     * constraint violation), as opposed to failing to run the statements at all.
+     */
+    private static boolean isDataError(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof DataIntegrityViolationException) {
+                return true;
+            }
+            if (t instanceof SQLException sql && sql.getSQLState() != null
+                    && (sql.getSQLState().startsWith("22") || sql.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<PendingSession, SessionView> store(List<PendingSession> batch) {
+        // Users in id order, so concurrent writers lock revision and stats rows in a consistent order
+        Map<Long, List<PendingSession>> byUser = new TreeMap<>();
+        for (PendingSession pending : batch) {
+            byUser.computeIfAbsent(pending.userId(), id -> new ArrayList<>()).add(pending);
+        }
+        Map<PendingSession, SessionView> stored = new IdentityHashMap<>();
+        byUser.forEach((userId, sessions) -> {
+            long revision = revisionRepository.nextRevision(userId);
+            readYourWrites.recordWrite(userId);
+            User user = entityManager.getReference(User.class, userId);
+            List<SessionView> views = new ArrayList<>(sessions.size());
+            for (PendingSession pending : sessions) {
+                Session s = new Session(pending.status(), pending.date(), pending.asana(), user);
+                s.setRevision(revision);
+                entityManager.persist(s);
+                SessionView view = SessionView.from(s);
+                views.add(view);
+                stored.put(pending, view);
+            }
+            practiceStatsService.recordSessions(userId, views);
+        });
+        return stored;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        accepting = true;
+        writer = new Thread(this::runWriter, "session-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        accepting = false;
+        stopDeadline = System.nanoTime() + shutdownTimeoutNanos;
+        stopping = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // A create may have slipped in while the writer was exiting
+        List<PendingSession> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int i = 0; i < rest.size(); i += batchSize) {
+            flush(rest.subList(i, Math.min(rest.size(), i + batchSize)));
+        }
+        writer = null;
+        logger.info("Session write-behind queue drained");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server's graceful shutdown, so in-flight creates are still flushed
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private record PendingSession(Long userId, SessionStatus status, LocalDate date, Asana asana,
+                                  CompletableFuture<SessionView> result) {}
+}
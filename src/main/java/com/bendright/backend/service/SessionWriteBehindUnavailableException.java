@@ -0,0 +1,11 @@
+package com.bendright.backend.service;
+
+/**
+ * Thrown when the write-behind queue is full, or shutting down, and a session cannot be accepted.
+ */
+public class SessionWriteBehindUnavailableException extends RuntimeException {
+
+    public SessionWriteBehindUnavailableException() {
+        super("Session write queue is full");
+    }
+}
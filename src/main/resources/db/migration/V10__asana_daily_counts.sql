@@ -0,0 +1,15 @@
+-- Sessions per asana and practice day across all users, for the popularity ranking (AsanaPopularity).
+-- Each instance counts in memory and adds its counts here every few seconds; rows older than the ranking
+-- window are deleted. Seeded with the last week of sessions.
+CREATE TABLE asana_daily_counts (
+    day      DATE     NOT NULL,
+    asana_id SMALLINT NOT NULL REFERENCES asanas (id),
+    sessions BIGINT   NOT NULL,
+    PRIMARY KEY (day, asana_id)
+);
+
+INSERT INTO asana_daily_counts (day, asana_id, sessions)
+SELECT date, asana_id, count(*)
+FROM sessions
+WHERE date BETWEEN current_date - 6 AND current_date
+GROUP BY date, asana_id;
@@ -0,0 +1,19 @@
+-- Idempotency keys move out of the partitioned sessions table, where a unique constraint has to include
+-- the session date (V8) and archiving deletes the row holding the key. One row per user and key, pointing
+-- at the session stored by the first attempt; rows stay when the session is archived.
+CREATE TABLE session_client_keys (
+    user_id    BIGINT      NOT NULL REFERENCES users (id),
+    client_key VARCHAR(64) NOT NULL,
+    session_id BIGINT      NOT NULL,
+    date       DATE        NOT NULL,
+    PRIMARY KEY (user_id, client_key)
+);
+
+-- A key stored under several dates while uniqueness included the date resolves to its first session
+INSERT INTO session_client_keys (user_id, client_key, session_id, date)
+SELECT DISTINCT ON (user_id, client_key) user_id, client_key, id, date
+FROM sessions
+WHERE client_key IS NOT NULL
+ORDER BY user_id, client_key, id;
+
+ALTER TABLE sessions DROP CONSTRAINT uk_sessions_user_client_key;
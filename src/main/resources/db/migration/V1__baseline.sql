@@ -0,0 +1,19 @@
+-- Schema as previously generated by Hibernate auto-DDL. Existing databases are baselined at
+-- this version (spring.flyway.baseline-on-migrate), so this script only runs on empty databases.
+
+CREATE TABLE users (
+    id        BIGSERIAL PRIMARY KEY,
+    email     VARCHAR(255) NOT NULL UNIQUE,
+    password  VARCHAR(255) NOT NULL,
+    user_name VARCHAR(255)
+);
+
+CREATE TABLE sessions (
+    id      BIGSERIAL PRIMARY KEY,
+    asana   VARCHAR(255) NOT NULL,
+    date    DATE         NOT NULL,
+    status  VARCHAR(255) NOT NULL CHECK (status IN ('PENDING', 'COMPLETED')),
+    user_id BIGINT REFERENCES users (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_sessions_user_date_id ON sessions (user_id, date, id);
@@ -0,0 +1,8 @@
+-- Session ids move from per-row IDENTITY-style allocation to Hibernate's pooled optimizer so inserts
+-- can be JDBC-batched. Each nextval now reserves a block of 50 ids: with the pooled optimizer a
+-- returned value v owns (v - 49 .. v), so the sequence is positioned one full block past MAX(id).
+ALTER SEQUENCE sessions_id_seq INCREMENT BY 50;
+SELECT setval('sessions_id_seq', (SELECT COALESCE(MAX(id), 0) FROM sessions) + 50, false);
+
+-- Databases created by Hibernate before the baseline never got this index
+CREATE INDEX IF NOT EXISTS idx_sessions_user_date_id ON sessions (user_id, date, id);
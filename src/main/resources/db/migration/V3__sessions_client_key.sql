@@ -0,0 +1,4 @@
+-- Client-supplied idempotency keys: a retried write with the same key for the same user
+-- must resolve to the row stored by the first attempt.
+ALTER TABLE sessions ADD COLUMN client_key VARCHAR(64);
+ALTER TABLE sessions ADD CONSTRAINT uk_sessions_user_client_key UNIQUE (user_id, client_key);
@@ -0,0 +1,56 @@
+-- Per-user practice aggregates maintained incrementally on every session write
+-- (PracticeStatsService) and recomputable from sessions (PracticeStatsRebuilder).
+
+CREATE TABLE user_practice_stats (
+    user_id            BIGINT PRIMARY KEY REFERENCES users (id),
+    total_sessions     BIGINT NOT NULL DEFAULT 0,
+    completed_sessions BIGINT NOT NULL DEFAULT 0,
+    -- most recent run of consecutive practice days; streak_end is the latest practice day
+    streak_start       DATE,
+    streak_end         DATE,
+    longest_streak     INT    NOT NULL DEFAULT 0
+);
+
+CREATE TABLE user_daily_practice (
+    user_id   BIGINT NOT NULL REFERENCES users (id),
+    day       DATE   NOT NULL,
+    total     INT    NOT NULL,
+    completed INT    NOT NULL,
+    PRIMARY KEY (user_id, day)
+);
+
+CREATE TABLE user_asana_practice (
+    user_id   BIGINT       NOT NULL REFERENCES users (id),
+    asana     VARCHAR(255) NOT NULL,
+    total     BIGINT       NOT NULL,
+    completed BIGINT       NOT NULL,
+    PRIMARY KEY (user_id, asana)
+);
+
+-- Seed from existing history
+INSERT INTO user_daily_practice (user_id, day, total, completed)
+SELECT user_id, date, count(*), count(*) FILTER (WHERE status = 'COMPLETED')
+FROM sessions WHERE user_id IS NOT NULL
+GROUP BY user_id, date;
+
+INSERT INTO user_asana_practice (user_id, asana, total, completed)
+SELECT user_id, asana, count(*), count(*) FILTER (WHERE status = 'COMPLETED')
+FROM sessions WHERE user_id IS NOT NULL
+GROUP BY user_id, asana;
+
+INSERT INTO user_practice_stats (user_id, total_sessions, completed_sessions)
+SELECT user_id, sum(total), sum(completed)
+FROM user_daily_practice
+GROUP BY user_id;
+
+UPDATE user_practice_stats s
+SET streak_start = r.run_start, streak_end = r.run_end, longest_streak = r.longest
+FROM (SELECT DISTINCT ON (user_id) user_id, run_start, run_end,
+             max(run_end - run_start + 1) OVER (PARTITION BY user_id) AS longest
+      FROM (SELECT user_id, min(day) AS run_start, max(day) AS run_end
+            FROM (SELECT user_id, day,
+                         day - (row_number() OVER (PARTITION BY user_id ORDER BY day))::int AS island
+                  FROM user_daily_practice) d
+            GROUP BY user_id, island) runs
+      ORDER BY user_id, run_end DESC) r
+WHERE s.user_id = r.user_id;
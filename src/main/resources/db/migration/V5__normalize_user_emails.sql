@@ -0,0 +1,30 @@
+-- Emails are now stored trimmed and lower-cased (User.normalizeEmail), so lookups are exact
+-- matches served by the unique index on users.email instead of lower(email) = lower(?) scans.
+-- Signup used to store emails as entered, so accounts such as " A@x.com" and "a@x.com" may both
+-- exist. They cannot be merged automatically (each has its own password and sessions), so the
+-- migration stops and lists them instead of failing halfway on the unique index.
+
+-- Same rule as User.normalizeEmail: String.trim() strips every character up to U+0020 (tabs and line
+-- breaks included), not only the spaces btrim() removes
+CREATE FUNCTION pg_temp.normalize_email(email TEXT) RETURNS TEXT
+    LANGUAGE sql IMMUTABLE
+    AS $$ SELECT lower(regexp_replace(email, '^[\x01-\x20]+|[\x01-\x20]+$', '', 'g')) $$;
+
+DO $$
+DECLARE
+    collisions TEXT;
+BEGIN
+    SELECT string_agg(format('"%s" (user ids %s)', normalized, ids), '; ')
+    INTO collisions
+    FROM (SELECT pg_temp.normalize_email(email) AS normalized, string_agg(id::TEXT, ', ' ORDER BY id) AS ids
+          FROM users
+          GROUP BY pg_temp.normalize_email(email)
+          HAVING count(*) > 1) duplicated;
+    IF collisions IS NOT NULL THEN
+        RAISE EXCEPTION 'Cannot normalize user emails; these accounts differ only in case or surrounding whitespace: %',
+            collisions
+            USING HINT = 'Merge, rename or delete the listed accounts, then start the application again.';
+    END IF;
+END $$;
+
+UPDATE users SET email = pg_temp.normalize_email(email) WHERE email <> pg_temp.normalize_email(email);
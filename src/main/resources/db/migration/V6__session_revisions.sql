@@ -0,0 +1,9 @@
+-- Per-user session revision for conditional GETs and delta sync. Every write bumps the user's
+-- revision under its row lock and stamps the rows it stores, so revisions follow commit order.
+CREATE TABLE user_session_revisions (
+    user_id  BIGINT PRIMARY KEY REFERENCES users (id),
+    revision BIGINT NOT NULL
+);
+
+ALTER TABLE sessions ADD COLUMN revision BIGINT NOT NULL DEFAULT 0;
+CREATE INDEX idx_sessions_user_revision ON sessions (user_id, revision);
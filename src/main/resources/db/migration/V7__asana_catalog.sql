@@ -0,0 +1,35 @@
+-- Asana catalog: sessions and per-asana stats reference a small integer id instead of repeating the
+-- free-text pose name. Names are matched trimmed and case-insensitively (normalized_name); the first
+-- spelling seen becomes the display name.
+CREATE TABLE asanas (
+    id              SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(255) NOT NULL,
+    normalized_name VARCHAR(255) NOT NULL UNIQUE
+);
+
+INSERT INTO asanas (name, normalized_name)
+SELECT DISTINCT ON (lower(trim(asana))) trim(asana), lower(trim(asana))
+FROM sessions
+ORDER BY lower(trim(asana)), id;
+
+ALTER TABLE sessions ADD COLUMN asana_id SMALLINT REFERENCES asanas (id);
+UPDATE sessions s SET asana_id = a.id FROM asanas a WHERE a.normalized_name = lower(trim(s.asana));
+ALTER TABLE sessions ALTER COLUMN asana_id SET NOT NULL;
+ALTER TABLE sessions DROP COLUMN asana;
+
+-- Spellings that now share an id are merged
+CREATE TABLE user_asana_practice_by_id (
+    user_id   BIGINT   NOT NULL REFERENCES users (id),
+    asana_id  SMALLINT NOT NULL REFERENCES asanas (id),
+    total     BIGINT   NOT NULL,
+    completed BIGINT   NOT NULL,
+    PRIMARY KEY (user_id, asana_id)
+);
+
+INSERT INTO user_asana_practice_by_id (user_id, asana_id, total, completed)
+SELECT p.user_id, a.id, sum(p.total), sum(p.completed)
+FROM user_asana_practice p JOIN asanas a ON a.normalized_name = lower(trim(p.asana))
+GROUP BY p.user_id, a.id;
+
+DROP TABLE user_asana_practice;
+ALTER TABLE user_asana_practice_by_id RENAME TO user_asana_practice;
@@ -0,0 +1,67 @@
+-- Sessions are range-partitioned by the year of their date, so old years can be archived and dropped
+-- as whole partitions and date-bounded queries skip the others. Dates outside the created years land in
+-- sessions_default; SessionArchiver creates upcoming years ahead of time. Unique constraints on a
+-- partitioned table must contain the partition key, so the primary key becomes (id, date) and a client
+-- key is unique per user and session date (a retry repeats the date).
+ALTER SEQUENCE sessions_id_seq OWNED BY NONE;
+ALTER TABLE sessions RENAME TO sessions_unpartitioned;
+
+CREATE TABLE sessions (
+    id         BIGINT       NOT NULL DEFAULT nextval('sessions_id_seq'),
+    date       DATE         NOT NULL,
+    status     VARCHAR(255) NOT NULL CHECK (status IN ('PENDING', 'COMPLETED')),
+    user_id    BIGINT REFERENCES users (id),
+    client_key VARCHAR(64),
+    revision   BIGINT       NOT NULL DEFAULT 0,
+    asana_id   SMALLINT     NOT NULL REFERENCES asanas (id),
+    PRIMARY KEY (id, date)
+) PARTITION BY RANGE (date);
+
+ALTER SEQUENCE sessions_id_seq OWNED BY sessions.id;
+
+-- One partition per year from the oldest stored session (at most ten years back) to two years ahead
+DO $$
+DECLARE
+    this_year INT := extract(YEAR FROM current_date)::INT;
+    first_year INT;
+BEGIN
+    SELECT greatest(coalesce(extract(YEAR FROM min(date))::INT, this_year), this_year - 10)
+    INTO first_year FROM sessions_unpartitioned;
+    FOR y IN first_year .. this_year + 2 LOOP
+        EXECUTE format('CREATE TABLE sessions_y%s PARTITION OF sessions FOR VALUES FROM (%L) TO (%L)',
+                       y, make_date(y, 1, 1), make_date(y + 1, 1, 1));
+    END LOOP;
+END $$;
+
+CREATE TABLE sessions_default PARTITION OF sessions DEFAULT;
+
+INSERT INTO sessions (id, date, status, user_id, client_key, revision, asana_id)
+SELECT id, date, status, user_id, client_key, revision, asana_id FROM sessions_unpartitioned;
+
+DROP TABLE sessions_unpartitioned;
+
+CREATE INDEX idx_sessions_user_date_id ON sessions (user_id, date, id);
+CREATE INDEX idx_sessions_user_revision ON sessions (user_id, revision);
+ALTER TABLE sessions ADD CONSTRAINT uk_sessions_user_client_key UNIQUE (user_id, client_key, date);
+
+-- Cold storage: one row per user and year, the sessions packed into parallel arrays ordered by date and id
+-- (day = days since January 1st). Large arrays are compressed by TOAST.
+CREATE TABLE sessions_archive (
+    user_id   BIGINT     NOT NULL REFERENCES users (id),
+    year      SMALLINT   NOT NULL,
+    ids       BIGINT[]   NOT NULL,
+    days      SMALLINT[] NOT NULL,
+    asana_ids SMALLINT[] NOT NULL,
+    completed BOOLEAN[]  NOT NULL,
+    PRIMARY KEY (user_id, year)
+);
+
+-- Live and archived sessions together, for listings that ask for archived data and for stats rebuilds
+CREATE VIEW sessions_with_archive AS
+SELECT id, date, status, asana_id, user_id
+FROM sessions
+UNION ALL
+SELECT u.id, make_date(a.year, 1, 1) + u.day, CASE WHEN u.completed THEN 'COMPLETED' ELSE 'PENDING' END,
+       u.asana_id, a.user_id
+FROM sessions_archive a,
+     unnest(a.ids, a.days, a.asana_ids, a.completed) AS u (id, day, asana_id, completed);
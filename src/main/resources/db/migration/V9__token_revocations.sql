@@ -0,0 +1,13 @@
+-- Revoked access tokens, loaded into memory at startup and polled by every instance (TokenRevocations).
+-- token_id names one token (its jti); a null token_id revokes every token of the user issued up to
+-- revoked_at. Rows are useless once expires_at, the latest expiry of an affected token, has passed.
+CREATE TABLE token_revocations (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id    BIGINT      NOT NULL REFERENCES users (id),
+    token_id   VARCHAR(36),
+    revoked_at TIMESTAMPTZ NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idx_token_revocations_revoked_at ON token_revocations (revoked_at);
+CREATE INDEX idx_token_revocations_expires_at ON token_revocations (expires_at);
@@ -0,0 +1,263 @@
+package com.bendright.backend.config;
+
+import com.bendright.backend.security.JwtService;
+import com.bendright.backend.security.VerifiedToken;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routes reads over two in-memory stand-ins for replica pools; each hands out one mock connection, so
+ * the connection a read ends up on tells which database served it.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final int FAILURE_THRESHOLD = 3;
+
+    // Users 0 and 1 hash to the first and second replica
+    private static final Long FIRST_USER = 0L;
+    private static final Long SECOND_USER = 1L;
+
+    private final StandInPool primary = new StandInPool("primary");
+    private final StandInPool first = new StandInPool("replica-1");
+    private final StandInPool second = new StandInPool("replica-2");
+    private final AtomicReference<Long> currentUser = new AtomicReference<>();
+    private final Set<Long> recentWriters = ConcurrentHashMap.newKeySet();
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void startRouting() {
+        // The scheduled check runs once at startup and then not again during a test
+        routing = new ReplicaRoutingDataSource(primary, List.of(first, second), Duration.ofHours(1),
+                FAILURE_THRESHOLD, currentUser::get, userId -> userId != null && recentWriters.contains(userId));
+        await().atMost(Duration.ofSeconds(5)).until(() -> routing.healthyReplicas() == 2);
+    }
+
+    @AfterEach
+    void closeRouting() {
+        routing.close();
+    }
+
+    @Test
+    void usersStickToOneReplica() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            assertThat(readAs(FIRST_USER)).isSameAs(first.connection);
+            assertThat(readAs(SECOND_USER)).isSameAs(second.connection);
+        }
+    }
+
+    @Test
+    void anonymousReadsRotate() throws SQLException {
+        Connection a = readAs(null);
+        Connection b = readAs(null);
+
+        assertThat(Set.of(a, b)).containsExactlyInAnyOrder(first.connection, second.connection);
+    }
+
+    @Test
+    void writesAndRecentWritersUseThePrimary() throws SQLException {
+        currentUser.set(FIRST_USER);
+        try (Connection connection = routing.getConnection()) {
+            assertThat(target(connection)).isSameAs(primary.connection);
+        }
+
+        recentWriters.add(FIRST_USER);
+
+        assertThat(readAs(FIRST_USER)).isSameAs(primary.connection);
+        assertThat(readAs(SECOND_USER)).isSameAs(second.connection);
+    }
+
+    @Test
+    void saturatedReplicaStaysInRotation() throws SQLException {
+        first.failure = new SQLTransientConnectionException("replica-1 - Connection is not available, request timed out");
+
+        for (int i = 0; i < FAILURE_THRESHOLD * 2; i++) {
+            assertThat(readAs(FIRST_USER)).isSameAs(second.connection);
+        }
+        routing.checkReplicas();
+        assertThat(routing.healthyReplicas()).isEqualTo(2);
+
+        first.failure = null;
+        assertThat(readAs(FIRST_USER)).isSameAs(first.connection);
+    }
+
+    @Test
+    void failingReplicaLeavesRotationAfterTheThresholdUntilAHealthCheckPasses() throws SQLException {
+        first.failure = new SQLTransientConnectionException("replica-1 - Connection is not available",
+                new SQLException("Connection refused"));
+
+        for (int i = 1; i < FAILURE_THRESHOLD; i++) {
+            assertThat(readAs(FIRST_USER)).isSameAs(second.connection);
+            assertThat(routing.healthyReplicas()).isEqualTo(2);
+        }
+        assertThat(readAs(FIRST_USER)).isSameAs(second.connection);
+        assertThat(routing.healthyReplicas()).isEqualTo(1);
+
+        int attempts = first.attempts.get();
+        assertThat(readAs(FIRST_USER)).isSameAs(second.connection);
+        assertThat(first.attempts).as("a replica out of rotation is not asked").hasValue(attempts);
+
+        routing.checkReplicas();
+        assertThat(routing.healthyReplicas()).isEqualTo(1);
+
+        first.failure = null;
+        routing.checkReplicas();
+        assertThat(routing.healthyReplicas()).isEqualTo(2);
+        assertThat(readAs(FIRST_USER)).isSameAs(first.connection);
+    }
+
+    @Test
+    void successResetsTheFailureCount() throws SQLException {
+        SQLException refused = new SQLTransientConnectionException("replica-1 - Connection is not available",
+                new SQLException("Connection refused"));
+        for (int round = 0; round < 3; round++) {
+            first.failure = refused;
+            for (int i = 1; i < FAILURE_THRESHOLD; i++) {
+                readAs(FIRST_USER);
+            }
+            first.failure = null;
+            assertThat(readAs(FIRST_USER)).isSameAs(first.connection);
+        }
+
+        assertThat(routing.healthyReplicas()).isEqualTo(2);
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenNoReplicaIsAvailable() throws SQLException {
+        SQLException refused = new SQLException("Connection refused");
+        first.failure = refused;
+        second.failure = refused;
+        routing.checkReplicas();
+
+        assertThat(routing.healthyReplicas()).isZero();
+        assertThat(readAs(FIRST_USER)).isSameAs(primary.connection);
+        assertThat(readAs(null)).isSameAs(primary.connection);
+    }
+
+    @Test
+    void streamedReadsAreRoutedAsTheirRequestsUser() throws Exception {
+        // The real user lookup and tracker, reading on the streaming executor's thread
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker("jdbc:postgresql://replica/bendright",
+                Duration.ofMinutes(1), 100);
+        StreamingExecutorConfig streaming = new StreamingExecutorConfig(new SimpleMeterRegistry(), 1, 10, false);
+        ReplicaRoutingDataSource streamed = new ReplicaRoutingDataSource(primary, List.of(first, second),
+                Duration.ofHours(1), FAILURE_THRESHOLD, ReadYourWritesTracker::currentUserId, tracker::wroteRecently);
+        try {
+            await().atMost(Duration.ofSeconds(5)).until(() -> streamed.healthyReplicas() == 2);
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.setAttribute(JwtService.VERIFIED_TOKEN_ATTRIBUTE, new VerifiedToken(SECOND_USER, "user",
+                    "token-id", Instant.now(), Instant.now().plusSeconds(60)));
+            ServletRequestAttributes attributes = new ServletRequestAttributes(request);
+            CountDownLatch requestThreadReturned = new CountDownLatch(1);
+            Future<Connection> beforeWrite;
+            Future<Connection> afterWrite;
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                beforeWrite = streaming.streamingExecutor().submit(() -> readOnly(streamed));
+                beforeWrite.get(5, TimeUnit.SECONDS);
+                tracker.recordWrite(SECOND_USER);
+                // Streams typically run after the submitting thread has completed its request
+                afterWrite = streaming.streamingExecutor().submit(() -> {
+                    requestThreadReturned.await();
+                    return readOnly(streamed);
+                });
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+                attributes.requestCompleted();
+                requestThreadReturned.countDown();
+            }
+
+            // An anonymous read would have rotated to the first replica
+            assertThat(beforeWrite.get()).isSameAs(second.connection);
+            assertThat(afterWrite.get(5, TimeUnit.SECONDS)).isSameAs(primary.connection);
+        } finally {
+            streamed.close();
+            streaming.destroy();
+        }
+    }
+
+    @Test
+    void onlyHikarisTimeoutWithoutCauseIsSaturation() {
+        assertThat(ReplicaRoutingDataSource.isSaturated(new SQLTransientConnectionException("timed out"))).isTrue();
+        assertThat(ReplicaRoutingDataSource.isSaturated(
+                new SQLTransientConnectionException("timed out", new SQLException("refused")))).isFalse();
+        assertThat(ReplicaRoutingDataSource.isSaturated(new SQLException("refused"))).isFalse();
+    }
+
+    /**
+     * The connection a read-only transaction of {@code userId} gets once it runs its first statement.
+     */
+    private Connection readAs(Long userId) throws SQLException {
+        currentUser.set(userId);
+        return readOnly(routing);
+    }
+
+    private static Connection readOnly(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            return target(connection);
+        }
+    }
+
+    private static Connection target(Connection connection) {
+        return ((ConnectionProxy) connection).getTargetConnection();
+    }
+
+    private static final class StandInPool extends HikariDataSource {
+
+        final Connection connection = mock(Connection.class);
+        final AtomicInteger attempts = new AtomicInteger();
+        volatile SQLException failure;
+
+        StandInPool(String name) {
+            setPoolName(name);
+            try {
+                when(connection.isValid(anyInt())).thenReturn(true);
+                when(connection.getAutoCommit()).thenReturn(true);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            attempts.incrementAndGet();
+            SQLException e = failure;
+            if (e != null) {
+                throw e;
+            }
+            return connection;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.bendright.backend.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        SessionCursor cursor = new SessionCursor(LocalDate.of(2024, 2, 29), 9_007_199_254_740_993L);
+
+        String token = cursor.encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(SessionCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsTokensItDidNotProduce() {
+        assertThatThrownBy(() -> SessionCursor.decode("not base64!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SessionCursor.decode(encodeRaw("2024-01-01")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> SessionCursor.decode(encodeRaw("2024-13-01:5")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> SessionCursor.decode(encodeRaw("2024-01-01:five")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
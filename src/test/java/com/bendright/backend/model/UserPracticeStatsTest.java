@@ -0,0 +1,77 @@
+package com.bendright.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserPracticeStatsTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 4);
+
+    private final UserPracticeStats stats = new UserPracticeStats();
+
+    @Test
+    void startsWithoutStreak() {
+        assertThat(stats.streakLength()).isZero();
+        assertThat(stats.getLongestStreak()).isZero();
+        assertThat(stats.getStreakEnd()).isNull();
+    }
+
+    @Test
+    void consecutiveDaysExtendTheStreak() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(stats.applyPracticeDay(MONDAY.plusDays(i))).isTrue();
+        }
+
+        assertThat(stats.getStreakStart()).isEqualTo(MONDAY);
+        assertThat(stats.getStreakEnd()).isEqualTo(MONDAY.plusDays(2));
+        assertThat(stats.streakLength()).isEqualTo(3);
+        assertThat(stats.getLongestStreak()).isEqualTo(3);
+    }
+
+    @Test
+    void gapStartsANewStreakAndKeepsTheLongest() {
+        stats.applyPracticeDay(MONDAY);
+        stats.applyPracticeDay(MONDAY.plusDays(1));
+        stats.applyPracticeDay(MONDAY.plusDays(2));
+
+        assertThat(stats.applyPracticeDay(MONDAY.plusDays(4))).isTrue();
+
+        assertThat(stats.getStreakStart()).isEqualTo(MONDAY.plusDays(4));
+        assertThat(stats.streakLength()).isEqualTo(1);
+        assertThat(stats.getLongestStreak()).isEqualTo(3);
+    }
+
+    @Test
+    void daysWithinTheCurrentStreakChangeNothing() {
+        stats.applyPracticeDay(MONDAY);
+        stats.applyPracticeDay(MONDAY.plusDays(1));
+
+        assertThat(stats.applyPracticeDay(MONDAY)).isTrue();
+        assertThat(stats.applyPracticeDay(MONDAY.plusDays(1))).isTrue();
+
+        assertThat(stats.getStreakStart()).isEqualTo(MONDAY);
+        assertThat(stats.streakLength()).isEqualTo(2);
+    }
+
+    @Test
+    void dayBeforeTheCurrentStreakAsksForARecompute() {
+        stats.applyPracticeDay(MONDAY);
+
+        assertThat(stats.applyPracticeDay(MONDAY.minusDays(1))).isFalse();
+
+        assertThat(stats.getStreakStart()).isEqualTo(MONDAY);
+        assertThat(stats.streakLength()).isEqualTo(1);
+    }
+
+    @Test
+    void streakCrossesMonthAndYearEnds() {
+        LocalDate newYearsEve = LocalDate.of(2023, 12, 31);
+        stats.applyPracticeDay(newYearsEve);
+        stats.applyPracticeDay(newYearsEve.plusDays(1));
+
+        assertThat(stats.streakLength()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,111 @@
+package com.bendright.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    // Every release closes a window of its own
+    private static final long EVERY_RELEASE = 0;
+
+    @Test
+    void admitsUpToTheShareOfTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 0.5, TimeUnit.HOURS.toNanos(1));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(0.5)).isTrue();
+        }
+        assertThat(limiter.tryAcquire(0.5)).isFalse();
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(1.0)).isTrue();
+        }
+        assertThat(limiter.tryAcquire(1.0)).isFalse();
+        assertThat(limiter.inflight()).isEqualTo(10);
+
+        limiter.release(false);
+
+        assertThat(limiter.inflight()).isEqualTo(9);
+        assertThat(limiter.tryAcquire(1.0)).isTrue();
+    }
+
+    @Test
+    void smallSharesStillAdmitOne() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, TimeUnit.HOURS.toNanos(1));
+
+        assertThat(limiter.tryAcquire(0.1)).isTrue();
+        assertThat(limiter.tryAcquire(0.1)).isFalse();
+    }
+
+    @Test
+    void growsByOneWhenTheLimitWasUsed() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 5, 0.5, EVERY_RELEASE);
+
+        limiter.tryAcquire(1.0);
+        limiter.tryAcquire(1.0);
+        limiter.release(false);
+        assertThat(limiter.limit()).isEqualTo(5);
+
+        limiter.tryAcquire(1.0);
+        limiter.tryAcquire(1.0);
+        limiter.tryAcquire(1.0);
+        limiter.release(false);
+        assertThat(limiter.limit()).as("capped at max-limit").isEqualTo(5);
+    }
+
+    @Test
+    void staysWhenLittleOfTheLimitWasUsed() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 0.5, EVERY_RELEASE);
+
+        limiter.tryAcquire(1.0);
+        limiter.release(false);
+
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void backsOffOnCongestionDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 0.5, EVERY_RELEASE);
+
+        limiter.tryAcquire(1.0);
+        limiter.release(true);
+        assertThat(limiter.limit()).isEqualTo(5);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(1.0);
+            limiter.release(true);
+        }
+        assertThat(limiter.limit()).isEqualTo(2);
+    }
+
+    @Test
+    void toleratesATenthOfCongestedRequestsPerWindow() throws InterruptedException {
+        long window = TimeUnit.MILLISECONDS.toNanos(500);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 0.5, window);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(1.0);
+        }
+        for (int i = 0; i < 9; i++) {
+            limiter.release(i == 0);
+        }
+        Thread.sleep(600);
+
+        // 1 of 10 congested closes the window without backing off
+        limiter.release(false);
+
+        assertThat(limiter.limit()).isEqualTo(11);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(10, 0, 100, 0.5, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(10, 20, 10, 0.5, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(10, 1, 100, 1.0, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
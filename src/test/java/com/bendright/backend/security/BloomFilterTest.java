@@ -0,0 +1,61 @@
+package com.bendright.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTest {
+
+    @Test
+    void neverMissesAnAddedKey() {
+        BloomFilter filter = new BloomFilter(1 << 16, 4);
+        String[] keys = new String[5000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = UUID.randomUUID().toString();
+            filter.add(keys[i]);
+        }
+
+        for (String key : keys) {
+            assertThat(filter.mightContain(key)).as(key).isTrue();
+        }
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1024, 4);
+
+        assertThat(filter.mightContain("")).isFalse();
+        assertThat(filter.mightContain("never-added")).isFalse();
+    }
+
+    @Test
+    void falsePositivesStayNearTheExpectedRate() {
+        // 2^20 bits, 4 hashes and 10,000 keys: about 0.0001% expected
+        BloomFilter filter = new BloomFilter(1 << 20, 4);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("added-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(50);
+    }
+
+    @Test
+    void smallSizesStillWork() {
+        BloomFilter filter = new BloomFilter(1, 3);
+        filter.add("a");
+
+        assertThat(filter.mightContain("a")).isTrue();
+        assertThatThrownBy(() -> new BloomFilter(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(64, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.bendright.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GcraRateLimiterTest {
+
+    // One token per 1000 seconds: nothing refills while a test runs
+    private static final double NO_REFILL = 0.001;
+
+    @Test
+    void allowsTheBurstThenRejectsWithTheWait() {
+        GcraRateLimiter limiter = new GcraRateLimiter(NO_REFILL, 3, Duration.ofHours(1), 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("client")).isZero();
+        }
+        long wait = limiter.tryAcquire("client");
+
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1000));
+    }
+
+    @Test
+    void keysHaveTheirOwnBuckets() {
+        GcraRateLimiter limiter = new GcraRateLimiter(NO_REFILL, 1, Duration.ofHours(1), 100);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        assertThat(limiter.tryAcquire("b")).isZero();
+        assertThat(limiter.bucketCount()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTokens() throws InterruptedException {
+        GcraRateLimiter limiter = new GcraRateLimiter(100, 1, Duration.ofHours(1), 100);
+
+        assertThat(limiter.tryAcquire("client")).isZero();
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire("client");
+        }
+        Thread.sleep(15);
+
+        assertThat(limiter.tryAcquire("client")).isZero();
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws InterruptedException {
+        GcraRateLimiter limiter = new GcraRateLimiter(NO_REFILL, 100, Duration.ofHours(1), 100);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            threads.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tryAcquire("shared") == 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        threads.shutdown();
+        assertThat(threads.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(allowed).hasValue(100);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new GcraRateLimiter(0, 1, Duration.ofMinutes(1), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new GcraRateLimiter(1, 0, Duration.ofMinutes(1), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.bendright.backend.security;
+
+import com.bendright.backend.model.TokenRevocation;
+import com.bendright.backend.repository.TokenRevocationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationsTest {
+
+    private static final long EXPIRATION_MS = Duration.ofHours(1).toMillis();
+
+    private final TokenRevocationRepository repository = mock(TokenRevocationRepository.class);
+    private final TokenRevocations revocations = new TokenRevocations(repository, new SimpleMeterRegistry(),
+            EXPIRATION_MS, Duration.ofSeconds(10), 1 << 16, 4);
+
+    TokenRevocationsTest() {
+        when(repository.save(any(TokenRevocation.class))).then(returnsFirstArg());
+    }
+
+    @Test
+    void revokesOnlyTheLoggedOutToken() {
+        VerifiedToken loggedOut = token(1L, Instant.now());
+        VerifiedToken other = token(1L, Instant.now());
+
+        revocations.revoke(loggedOut);
+
+        assertThat(revocations.isRevoked(loggedOut)).isTrue();
+        assertThat(revocations.isRevoked(other)).isFalse();
+    }
+
+    @Test
+    void logoutEverywhereRevokesTokensIssuedUpToIt() {
+        Instant before = Instant.now().minusMillis(1);
+        VerifiedToken issuedBefore = token(1L, before);
+        VerifiedToken withoutIssueTime = token(1L, null);
+        VerifiedToken otherUser = token(2L, before);
+
+        revocations.revokeAll(1L);
+        VerifiedToken issuedAfter = token(1L, Instant.now().plusMillis(1));
+
+        assertThat(revocations.isRevoked(issuedBefore)).isTrue();
+        assertThat(revocations.isRevoked(withoutIssueTime)).isTrue();
+        assertThat(revocations.isRevoked(issuedAfter)).isFalse();
+        assertThat(revocations.isRevoked(otherUser)).isFalse();
+    }
+
+    @Test
+    void appliesRevocationsStoredByOtherInstances() {
+        VerifiedToken token = token(3L, Instant.now().minusSeconds(5));
+        when(repository.findActiveRevokedSince(any(), any())).thenReturn(List.of(
+                new TokenRevocation(3L, token.id(), Instant.now(), token.expiresAt())));
+
+        assertThat(revocations.isRevoked(token)).isFalse();
+        revocations.refresh();
+
+        assertThat(revocations.isRevoked(token)).isTrue();
+    }
+
+    @Test
+    void forgetsRevocationsOnceTheirTokensExpired() {
+        Instant issued = Instant.now().minusSeconds(120);
+        VerifiedToken expired = new VerifiedToken(4L, "user", UUID.randomUUID().toString(), issued,
+                Instant.now().minusSeconds(60));
+        VerifiedToken live = token(4L, issued);
+        revocations.revoke(expired);
+        revocations.revoke(live);
+
+        revocations.refresh();
+
+        assertThat(revocations.isRevoked(expired)).isFalse();
+        assertThat(revocations.isRevoked(live)).isTrue();
+    }
+
+    private static VerifiedToken token(Long userId, Instant issuedAt) {
+        return new VerifiedToken(userId, "user", UUID.randomUUID().toString(), issuedAt,
+                Instant.now().plusMillis(EXPIRATION_MS));
+    }
+}
@@ -0,0 +1,80 @@
+package com.bendright.backend.service;
+
+import com.bendright.backend.model.Asana;
+import com.bendright.backend.service.AsanaCatalog.Entry;
+import com.bendright.backend.service.AsanaCatalog.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsanaCatalogSnapshotTest {
+
+    @Test
+    void findsNamesTrimmedAndCaseInsensitively() {
+        Asana tree = new Asana((short) 1, "Tree Pose");
+        Snapshot snapshot = Snapshot.EMPTY.with(List.of(entry(tree), entry(new Asana((short) 2, "Warrior II"))));
+
+        assertThat(snapshot.find("Tree Pose")).isSameAs(tree);
+        assertThat(snapshot.find("tree pose")).isSameAs(tree);
+        assertThat(snapshot.find("  TREE POSE  ")).isSameAs(tree);
+        // Only spaces are trimmed, as by PostgreSQL's trim() in the V7 backfill
+        assertThat(snapshot.find("\tTree Pose\n")).isNull();
+        assertThat(snapshot.find("Tree  Pose")).isNull();
+        assertThat(snapshot.find("Tree")).isNull();
+        assertThat(snapshot.find("")).isNull();
+        assertThat(snapshot.find("   ")).isNull();
+    }
+
+    @Test
+    void normalizesLikeTheV7Backfill() {
+        assertThat(AsanaCatalog.normalize("  Tree POSE ")).isEqualTo("tree pose");
+        assertThat(AsanaCatalog.normalize("\tTree\n")).isEqualTo("\ttree\n");
+        assertThat(AsanaCatalog.normalize("Ásana")).isEqualTo("ásana");
+    }
+
+    @Test
+    void findsEveryEntryOfALargeCatalog() {
+        List<Entry> entries = new ArrayList<>();
+        for (short id = 1; id <= 2000; id++) {
+            entries.add(entry(new Asana(id, "Pose " + id)));
+        }
+        Snapshot snapshot = Snapshot.EMPTY.with(entries);
+
+        for (Entry e : entries) {
+            assertThat(snapshot.find(e.asana().name().toUpperCase())).isSameAs(e.asana());
+            assertThat(snapshot.byId(e.asana().id())).isSameAs(e.asana());
+        }
+        assertThat(snapshot.find("Pose 2001")).isNull();
+        assertThat(snapshot.size()).isEqualTo(2000);
+    }
+
+    @Test
+    void withKeepsKnownIdsAndAddsNewOnes() {
+        Asana tree = new Asana((short) 1, "Tree");
+        Snapshot snapshot = Snapshot.EMPTY.with(List.of(entry(tree)));
+
+        assertThat(snapshot.with(List.of(entry(new Asana((short) 1, "Tree"))))).isSameAs(snapshot);
+
+        Asana crow = new Asana((short) 9, "Crow");
+        Snapshot grown = snapshot.with(List.of(entry(crow)));
+        assertThat(grown.find("crow")).isSameAs(crow);
+        assertThat(grown.find("tree")).isSameAs(tree);
+        assertThat(snapshot.find("crow")).as("the old snapshot is unchanged").isNull();
+    }
+
+    @Test
+    void unknownIdsAreNull() {
+        Snapshot snapshot = Snapshot.EMPTY.with(List.of(entry(new Asana((short) 3, "Boat"))));
+
+        assertThat(snapshot.byId((short) 2)).isNull();
+        assertThat(snapshot.byId((short) 4)).isNull();
+        assertThat(snapshot.byId((short) -1)).isNull();
+    }
+
+    private static Entry entry(Asana asana) {
+        return new Entry(asana, AsanaCatalog.normalize(asana.name()));
+    }
+}
@@ -0,0 +1,159 @@
+package com.bendright.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PracticeCalendarTest {
+
+    // Leap year: day-of-year 366 exists
+    private static final int YEAR = 2024;
+
+    @Test
+    void unpracticedDayEndsNoRun() {
+        PracticeCalendar calendar = practiced(10, 11);
+
+        assertThat(calendar.runEndingAt(12)).isZero();
+        assertThat(calendar.runEndingAt(1)).isZero();
+    }
+
+    @Test
+    void runWithinOneWord() {
+        PracticeCalendar calendar = practiced(10, 11, 12, 13, 14);
+
+        assertThat(calendar.runEndingAt(14)).isEqualTo(5);
+        assertThat(calendar.runEndingAt(12)).isEqualTo(3);
+        assertThat(calendar.longestRun()).isEqualTo(5);
+    }
+
+    @Test
+    void runAcrossTheFirstWordBoundary() {
+        // Days 64 and 65 are bits 63 and 64: the top of word 0 and the bottom of word 1
+        PracticeCalendar calendar = practiced(62, 63, 64, 65, 66);
+
+        assertThat(calendar.runEndingAt(64)).isEqualTo(3);
+        assertThat(calendar.runEndingAt(65)).isEqualTo(4);
+        assertThat(calendar.runEndingAt(66)).isEqualTo(5);
+        assertThat(calendar.longestRun()).isEqualTo(5);
+    }
+
+    @Test
+    void runStartingOnAWordBoundary() {
+        PracticeCalendar calendar = practiced(65, 66, 67);
+
+        assertThat(calendar.runEndingAt(67)).isEqualTo(3);
+        assertThat(calendar.runEndingAt(65)).isEqualTo(1);
+        assertThat(calendar.longestRun()).isEqualTo(3);
+    }
+
+    @Test
+    void runOverWholeWords() {
+        PracticeCalendar calendar = range(1, 200);
+
+        assertThat(calendar.runEndingAt(200)).isEqualTo(200);
+        assertThat(calendar.runEndingAt(128)).isEqualTo(128);
+        assertThat(calendar.longestRun()).isEqualTo(200);
+    }
+
+    @Test
+    void runFromTheMiddleOfTheYearToItsLastDay() {
+        PracticeCalendar calendar = range(100, 366).with(LocalDate.ofYearDay(YEAR, 50), false);
+
+        assertThat(calendar.runEndingAt(366)).isEqualTo(267);
+        assertThat(calendar.longestRun()).isEqualTo(267);
+    }
+
+    @Test
+    void wholeYear() {
+        PracticeCalendar calendar = range(1, 366);
+
+        assertThat(calendar.runEndingAt(366)).isEqualTo(366);
+        assertThat(calendar.longestRun()).isEqualTo(366);
+        assertThat(calendar.practicedDays()).isEqualTo(366);
+    }
+
+    @Test
+    void longestRunIsNotTheLatest() {
+        PracticeCalendar calendar = range(30, 100).or(range(200, 210));
+
+        assertThat(calendar.longestRun()).isEqualTo(71);
+        assertThat(calendar.runEndingAt(210)).isEqualTo(11);
+    }
+
+    @Test
+    void matchesADayByDayCountOnRandomCalendars() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            double density = random.nextDouble();
+            boolean[] days = new boolean[367];
+            PracticeCalendar calendar = PracticeCalendar.empty(YEAR);
+            for (int day = 1; day <= 366; day++) {
+                if (random.nextDouble() < density) {
+                    days[day] = true;
+                    calendar = calendar.with(LocalDate.ofYearDay(YEAR, day), false);
+                }
+            }
+
+            int longest = 0;
+            int run = 0;
+            for (int day = 1; day <= 366; day++) {
+                run = days[day] ? run + 1 : 0;
+                longest = Math.max(longest, run);
+                assertThat(calendar.runEndingAt(day)).as("round %d, day %d", round, day).isEqualTo(run);
+                assertThat(calendar.practiced(day)).isEqualTo(days[day]);
+            }
+            assertThat(calendar.longestRun()).as("round %d", round).isEqualTo(longest);
+        }
+    }
+
+    @Test
+    void withReturnsANewCalendarOnlyWhenSomethingChanged() {
+        LocalDate day = LocalDate.of(YEAR, 3, 1);
+        PracticeCalendar empty = PracticeCalendar.empty(YEAR);
+        PracticeCalendar practiced = empty.with(day, false);
+        PracticeCalendar completed = practiced.with(day, true);
+
+        assertThat(empty.practicedDays()).isZero();
+        assertThat(practiced.with(day, false)).isSameAs(practiced);
+        assertThat(completed.with(day, false)).isSameAs(completed);
+        assertThat(practiced.completedDays()).isZero();
+        assertThat(completed.completedDays()).isEqualTo(1);
+        assertThat(completed.practicedDays()).isEqualTo(1);
+    }
+
+    @Test
+    void encodesDaysLeastSignificantBitFirst() {
+        PracticeCalendar calendar = practiced(1, 9, 366).with(LocalDate.ofYearDay(YEAR, 2), true);
+
+        byte[] practiced = Base64.getDecoder().decode(calendar.practicedBase64());
+        byte[] completed = Base64.getDecoder().decode(calendar.completedBase64());
+
+        assertThat(practiced).hasSize(46);
+        assertThat(practiced[0]).isEqualTo((byte) 0b11);
+        assertThat(practiced[1]).isEqualTo((byte) 0b1);
+        // Day 366 is bit 365: byte 45, bit 5
+        assertThat(practiced[45]).isEqualTo((byte) 0b10_0000);
+        assertThat(completed[0]).isEqualTo((byte) 0b10);
+        assertThat(calendar.length()).isEqualTo(366);
+    }
+
+    private static PracticeCalendar practiced(int... daysOfYear) {
+        PracticeCalendar calendar = PracticeCalendar.empty(YEAR);
+        for (int day : daysOfYear) {
+            calendar = calendar.with(LocalDate.ofYearDay(YEAR, day), false);
+        }
+        return calendar;
+    }
+
+    private static PracticeCalendar range(int first, int last) {
+        PracticeCalendar calendar = PracticeCalendar.empty(YEAR);
+        for (int day = first; day <= last; day++) {
+            calendar = calendar.with(LocalDate.ofYearDay(YEAR, day), false);
+        }
+        return calendar;
+    }
+}
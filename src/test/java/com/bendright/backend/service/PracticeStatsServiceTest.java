@@ -0,0 +1,72 @@
+package com.bendright.backend.service;
+
+import com.bendright.backend.dto.PracticeStatsResponse;
+import com.bendright.backend.model.UserPracticeStats;
+import com.bendright.backend.repository.AsanaPracticeRepository;
+import com.bendright.backend.repository.DailyPracticeRepository;
+import com.bendright.backend.repository.PracticeStatsRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PracticeStatsServiceTest {
+
+    private static final long USER_ID = 7L;
+
+    private final PracticeStatsRepository statsRepository = mock(PracticeStatsRepository.class);
+    private final PracticeStatsService service = new PracticeStatsService(statsRepository,
+            mock(DailyPracticeRepository.class), mock(AsanaPracticeRepository.class), mock(AsanaCatalog.class),
+            mock(AsanaPopularity.class), mock(PracticeCalendarService.class));
+
+    @Test
+    void streakEndingTodayIsCurrent() {
+        storeStreak(LocalDate.now().minusDays(4), 5);
+
+        PracticeStatsResponse response = service.getStats(USER_ID);
+
+        assertThat(response.currentStreak()).isEqualTo(5);
+        assertThat(response.longestStreak()).isEqualTo(5);
+        assertThat(response.lastPracticeDate()).isEqualTo(LocalDate.now());
+    }
+
+    @Test
+    void streakEndingYesterdayIsStillCurrent() {
+        storeStreak(LocalDate.now().minusDays(3), 3);
+
+        assertThat(service.getStats(USER_ID).currentStreak()).isEqualTo(3);
+    }
+
+    @Test
+    void streakEndingBeforeYesterdayIsOver() {
+        storeStreak(LocalDate.now().minusDays(5), 4);
+
+        PracticeStatsResponse response = service.getStats(USER_ID);
+
+        assertThat(response.currentStreak()).isZero();
+        assertThat(response.longestStreak()).isEqualTo(4);
+    }
+
+    @Test
+    void userWithoutStatsHasNoStreak() {
+        PracticeStatsResponse response = service.getStats(USER_ID);
+
+        assertThat(response.currentStreak()).isZero();
+        assertThat(response.completionRate()).isZero();
+        assertThat(response.weekly()).hasSize(12);
+        assertThat(response.monthly()).hasSize(12);
+    }
+
+    private void storeStreak(LocalDate first, int days) {
+        UserPracticeStats stats = new UserPracticeStats();
+        for (int i = 0; i < days; i++) {
+            stats.applyPracticeDay(first.plusDays(i));
+        }
+        stats.addSessions(days, days);
+        when(statsRepository.findById(USER_ID)).thenReturn(Optional.of(stats));
+    }
+}